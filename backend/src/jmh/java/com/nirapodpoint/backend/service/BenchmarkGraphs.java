@@ -0,0 +1,56 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkGraphs {
+    private static final String[] TYPES = {"murder", "rape", "kidnap", "assault", "robbery", "harassment", "theft", "other"};
+
+    private BenchmarkGraphs() {}
+
+    static RouteService.Graph load(String tile) throws IOException {
+        try (InputStream is = new ClassPathResource("osm_graphs/" + tile + ".json").getInputStream()) {
+            return RouteService.parseGraph(is);
+        }
+    }
+
+    static double[] bounds(RouteService.Graph graph) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE, minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (RouteService.Node n : graph.nodes().values()) {
+            minLat = Math.min(minLat, n.lat);
+            maxLat = Math.max(maxLat, n.lat);
+            minLng = Math.min(minLng, n.lng);
+            maxLng = Math.max(maxLng, n.lng);
+        }
+        return new double[]{minLat, maxLat, minLng, maxLng};
+    }
+
+    /**
+     * Crimes spread uniformly over the tile's bounding box, with times over the last 90 days.
+     */
+    static List<CrimeReport> crimes(RouteService.Graph graph, int count, long seed) {
+        double[] b = bounds(graph);
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<CrimeReport> crimes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CrimeReport crime = new CrimeReport();
+            crime.setId(Integer.toString(i));
+            crime.setType(TYPES[random.nextInt(TYPES.length)]);
+            crime.setLocation(new GeoJsonPoint(
+                b[2] + random.nextDouble() * (b[3] - b[2]),
+                b[0] + random.nextDouble() * (b[1] - b[0])));
+            crime.setTime(now.minusMinutes(random.nextInt(90 * 24 * 60)));
+            crimes.add(crime);
+        }
+        return crimes;
+    }
+}
@@ -0,0 +1,100 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages of findSafestRoute in isolation, on a real tile with a synthetic crime set.
+ * Run with {@code -prof gc} (the default for the jmh profile) to get allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+    private static final int QUERIES = 64;
+
+    @Param({"aftabnagar_drive", "kushtia_drive"})
+    public String tile;
+
+    @Param({"100", "1000"})
+    public int crimeCount;
+
+    private final RouteService routeService = new RouteService();
+    private RouteService.Graph graph;
+    private List<CrimeReport> crimes;
+    private List<RouteService.Node> nodeList;
+    private final Map<RouteService.Edge, Double> weights = new HashMap<>();
+    private double[][] points;
+    private RouteService.Node[][] pairs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graph = BenchmarkGraphs.load(tile);
+        crimes = BenchmarkGraphs.crimes(graph, crimeCount, 42);
+        nodeList = new ArrayList<>(graph.nodes().values());
+        for (RouteService.Edge edge : graph.edges()) {
+            weights.put(edge, routeService.calculateEdgeWeight(edge, crimes));
+        }
+
+        Random random = new Random(7);
+        double[] b = BenchmarkGraphs.bounds(graph);
+        points = new double[QUERIES][];
+        pairs = new RouteService.Node[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = new double[]{
+                b[0] + random.nextDouble() * (b[1] - b[0]),
+                b[2] + random.nextDouble() * (b[3] - b[2])};
+            pairs[i] = new RouteService.Node[]{
+                nodeList.get(random.nextInt(nodeList.size())),
+                nodeList.get(random.nextInt(nodeList.size()))};
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) % QUERIES;
+        return cursor;
+    }
+
+    @Benchmark
+    public RouteService.Node snapNearestNode() {
+        double[] p = points[next()];
+        return routeService.findNearestNode(p[0], p[1], nodeList);
+    }
+
+    @Benchmark
+    public void weightAllEdges(Blackhole bh) {
+        for (RouteService.Edge edge : graph.edges()) {
+            bh.consume(routeService.calculateEdgeWeight(edge, crimes));
+        }
+    }
+
+    @Benchmark
+    public List<RouteService.Node> aStar() {
+        RouteService.Node[] pair = pairs[next()];
+        return routeService.aStar(pair[0], pair[1], weights);
+    }
+}
@@ -0,0 +1,430 @@
+package com.nirapodpoint.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nirapodpoint.backend.BackendApplication;
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.User;
+import com.nirapodpoint.backend.repository.UserRepository;
+import com.nirapodpoint.backend.security.JwtUtil;
+import com.nirapodpoint.backend.service.CrimeClusterIndex;
+import com.nirapodpoint.backend.service.DistrictStatsService;
+import com.nirapodpoint.backend.service.DistrictUtil;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives mixed route, viewport and district-stats traffic, and separately sustained crime submissions,
+ * against the full application backed by an embedded mongod, then compares p95/p99 latency and
+ * throughput with the stored baseline. Submissions are measured twice, through the synchronous save
+ * and through the write-behind queue, so the report shows the two side by side.
+ *
+ * <p>Run with {@code mvn -Pload-test test}. The first run downloads the MongoDB binaries; set
+ * {@code loadtest.mongodb.uri} to use an already running server instead. Tunables are system
+ * properties: {@code loadtest.crimes}, {@code loadtest.concurrency}, {@code loadtest.warmup-seconds},
+ * {@code loadtest.duration-seconds}, {@code loadtest.tolerance} and {@code loadtest.update-baseline}.
+ * Baselines are only comparable on the machine that recorded them, so none is committed: record one
+ * with {@code -Dloadtest.update-baseline=true} on the reference machine and after hardware changes.
+ * Without a baseline, or without an entry for a scenario, the run reports "no baseline" and only the
+ * error-rate check applies; a run is never recorded as the baseline unless asked to.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "mail.outbox.poll-ms=600000",
+    "crimes.hotspots.refresh-ms=600000",
+    "blobs.url-signing-key=" + BackendLoadTest.SIGNING_KEY,
+    // Every virtual user shares one IP; the per-client buckets would measure the limiter, not the backend.
+    "admission.enabled=false"
+})
+class BackendLoadTest {
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static String mongoUri;
+
+    static final String SIGNING_KEY = "loadtest-blob-signing-key-0123456789abcdef";
+
+    private static final Path BASELINE = Path.of("src/loadtest/resources/loadtest-baseline.json");
+    private static final Path REPORT = Path.of("target/loadtest-report.json");
+
+    // Dhaka neighbourhood tiles the crimes and viewport queries are spread over.
+    private static final List<String> DHAKA_TILES = List.of(
+        "dhanmondi_drive", "gulshan_drive", "mirpur_drive", "motijheel_drive", "uttara_drive", "mohammadpur_drive");
+    // The routing graphs are per district; Kushtia is the district tile routes are planned on.
+    private static final String ROUTE_TILE = "kushtia_drive";
+    private static final String ROUTE_DISTRICT = "Kushtia";
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        String external = System.getProperty("loadtest.mongodb.uri");
+        if (external == null || external.isBlank()) {
+            // A real server rather than an emulator: the crime queries rely on $geoWithin and 2dsphere indexes.
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+        }
+        mongoUri = mongod != null ? "mongodb://" + mongod.current().getServerAddress() : external;
+        registry.add("spring.data.mongodb.uri", () -> mongoUri);
+        registry.add("spring.data.mongodb.database", () -> "nirapodpoint_loadtest");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private DistrictStatsService districtStatsService;
+    @Autowired
+    private CrimeClusterIndex crimeClusterIndex;
+
+    @Value("${loadtest.crimes:20000}")
+    private int crimeCount;
+    @Value("${loadtest.concurrency:16}")
+    private int concurrency;
+    @Value("${loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+    @Value("${loadtest.duration-seconds:30}")
+    private int durationSeconds;
+    @Value("${loadtest.tolerance:0.25}")
+    private double tolerance;
+    @Value("${loadtest.max-error-rate:0.01}")
+    private double maxErrorRate;
+    @Value("${loadtest.update-baseline:false}")
+    private boolean updateBaseline;
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private record Scenario(String name, int weight, Function<Random, HttpRequest.Builder> request) {}
+
+    @Test
+    void mixedTraffic() throws Exception {
+        List<double[]> dhakaNodes = new ArrayList<>();
+        for (String tile : DHAKA_TILES) {
+            dhakaNodes.addAll(SyntheticCrimeSeeder.tileNodes(tile));
+        }
+        List<double[]> routeNodes = SyntheticCrimeSeeder.tileNodes(ROUTE_TILE).stream()
+            .filter(n -> ROUTE_DISTRICT.equals(DistrictUtil.findDistrict(n[0], n[1])))
+            .toList();
+
+        // Documents are removed rather than collections dropped so the startup indexes survive reruns
+        // against an external server.
+        mongoTemplate.remove(new Query(), CrimeReport.class);
+        SyntheticCrimeSeeder seeder = new SyntheticCrimeSeeder(mongoTemplate, 42);
+        int routeCrimes = crimeCount / 4;
+        seeder.seed(dhakaNodes, crimeCount - routeCrimes);
+        seeder.seed(routeNodes, routeCrimes);
+        districtStatsService.rebuild();
+        crimeClusterIndex.rebuild();
+        String token = loadTestToken();
+
+        List<double[][]> routePairs = routePairs(routeNodes, 64, new Random(7));
+        List<Scenario> scenarios = List.of(
+            new Scenario("bounds", 60, random -> {
+                double[] c = dhakaNodes.get(random.nextInt(dhakaNodes.size()));
+                double half = 0.005 + random.nextDouble() * 0.02;
+                String type = random.nextInt(4) == 0 ? "&type=theft" : "";
+                return HttpRequest.newBuilder(uri(String.format(Locale.ROOT,
+                    "/api/crimes/bounds?minLat=%.6f&maxLat=%.6f&minLng=%.6f&maxLng=%.6f&zoom=%d%s",
+                    c[0] - half, c[0] + half, c[1] - half, c[1] + half, 13 + random.nextInt(4), type))).GET();
+            }),
+            new Scenario("safest", 25, random -> {
+                double[][] pair = routePairs.get(random.nextInt(routePairs.size()));
+                String body = String.format(Locale.ROOT,
+                    "{\"startLat\":%.7f,\"startLng\":%.7f,\"endLat\":%.7f,\"endLng\":%.7f,\"networkType\":\"drive\"}",
+                    pair[0][0], pair[0][1], pair[1][0], pair[1][1]);
+                return HttpRequest.newBuilder(uri("/api/routes/safest"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            }),
+            new Scenario("district-stats", 15, random ->
+                HttpRequest.newBuilder(uri("/api/crimes/district-stats")).GET())
+        );
+
+        run(scenarios, token, Duration.ofSeconds(warmupSeconds));
+        report(run(scenarios, token, Duration.ofSeconds(durationSeconds)));
+    }
+
+    /**
+     * Crime submissions through the synchronous save, then through the write-behind queue in a second
+     * application on the same database with the queue turned on.
+     */
+    @Test
+    void crimeSubmission() throws Exception {
+        List<double[]> nodes = SyntheticCrimeSeeder.tileNodes(DHAKA_TILES.get(0));
+        String token = loadTestToken();
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        results.putAll(submissions("submit-sync", port, nodes, token));
+
+        Path journal = Files.createTempDirectory("crime-journal");
+        try (ConfigurableApplicationContext writeBehind = new SpringApplicationBuilder(BackendApplication.class)
+                .properties(
+                    "server.port=0",
+                    "spring.data.mongodb.uri=" + mongoUri,
+                    "spring.data.mongodb.database=nirapodpoint_loadtest",
+                    "mail.outbox.poll-ms=600000",
+                    "crimes.hotspots.refresh-ms=600000",
+                    "admission.enabled=false",
+                    "blobs.url-signing-key=" + SIGNING_KEY,
+                    "crimes.write-behind.enabled=true",
+                    "crimes.write-behind.journal=" + journal.resolve("crime-journal.ndjson"))
+                .run()) {
+            int writeBehindPort = writeBehind.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            results.putAll(submissions("submit-write-behind", writeBehindPort, nodes, token));
+        }
+        report(results);
+    }
+
+    private Map<String, LatencyStats> submissions(String name, int serverPort, List<double[]> nodes, String token) throws Exception {
+        List<Scenario> scenarios = List.of(new Scenario(name, 1, random -> {
+            double[] n = nodes.get(random.nextInt(nodes.size()));
+            String body = String.format(Locale.ROOT,
+                "{\"type\":\"theft\",\"description\":\"load test\",\"time\":\"%s\","
+                    + "\"location\":{\"type\":\"Point\",\"coordinates\":[%.7f,%.7f]}}",
+                LocalDateTime.now().withNano(0), n[1] + random.nextGaussian() * 0.001, n[0] + random.nextGaussian() * 0.001);
+            return HttpRequest.newBuilder(uri(serverPort, "/api/crimes"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        }));
+        run(scenarios, token, Duration.ofSeconds(warmupSeconds));
+        return run(scenarios, token, Duration.ofSeconds(durationSeconds));
+    }
+
+    private String loadTestToken() {
+        mongoTemplate.remove(new Query(Criteria.where("email").is("loadtest@example.com")), User.class);
+        User user = new User();
+        user.setName("Load Test");
+        user.setEmail("loadtest@example.com");
+        user.setVerified(true);
+        userRepository.save(user);
+        return jwtUtil.generateToken(user.getEmail());
+    }
+
+    private void report(Map<String, LatencyStats> results) throws Exception {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        results.forEach((name, stats) -> report.put(name, stats.toMap(durationSeconds)));
+        merge(REPORT, report);
+        System.out.println(String.format(Locale.ROOT, "%-16s %9s %8s %9s %9s %9s %9s",
+            "scenario", "requests", "errors", "rps", "p50 ms", "p95 ms", "p99 ms"));
+        results.forEach((name, stats) -> System.out.println(stats.format(name, durationSeconds)));
+
+        if (updateBaseline) {
+            merge(BASELINE, report);
+            return;
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, LatencyStats> entry : results.entrySet()) {
+            LatencyStats stats = entry.getValue();
+            if (stats.errorRate() > maxErrorRate) {
+                regressions.add(entry.getKey() + ": error rate " + stats.errorRate());
+            }
+        }
+        regressions.addAll(compareWithBaseline(report));
+        assertTrue(regressions.isEmpty(), "Load test regressed:\n" + String.join("\n", regressions));
+    }
+
+    private Map<String, LatencyStats> run(List<Scenario> scenarios, String token, Duration duration) throws Exception {
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        for (Scenario s : scenarios) stats.put(s.name(), new LatencyStats());
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                futures.add(workers.submit(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+                        HttpRequest request = scenario.request().apply(random)
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() / 100 == 2;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        stats.get(scenario.name()).record(System.nanoTime() - start, ok);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            workers.shutdownNow();
+        }
+        return stats;
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int roll) {
+        for (Scenario s : scenarios) {
+            roll -= s.weight();
+            if (roll < 0) return s;
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    /**
+     * Start/end pairs between 1 and 4 km apart, the typical length of a trip planned in the app.
+     */
+    private static List<double[][]> routePairs(List<double[]> nodes, int count, Random random) {
+        List<double[][]> pairs = new ArrayList<>(count);
+        while (pairs.size() < count) {
+            double[] a = nodes.get(random.nextInt(nodes.size()));
+            double[] b = nodes.get(random.nextInt(nodes.size()));
+            double km = Math.hypot((a[0] - b[0]) * 111.0, (a[1] - b[1]) * 111.0 * Math.cos(Math.toRadians(a[0])));
+            if (km >= 1 && km <= 4) pairs.add(new double[][]{a, b});
+        }
+        return pairs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> compareWithBaseline(Map<String, Map<String, Object>> report) throws Exception {
+        List<String> regressions = new ArrayList<>();
+        // Nothing to compare against: say so and skip the check, but never record this run implicitly.
+        if (!Files.exists(BASELINE)) {
+            System.out.println("No baseline at " + BASELINE + "; regression check skipped. "
+                + "Record one on the reference machine with -Dloadtest.update-baseline=true");
+            return regressions;
+        }
+        Map<String, Map<String, Object>> baseline = mapper.readValue(BASELINE.toFile(), Map.class);
+        for (Map.Entry<String, Map<String, Object>> entry : report.entrySet()) {
+            Map<String, Object> base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(entry.getKey() + ": no baseline entry; check skipped. "
+                    + "Record it with -Dloadtest.update-baseline=true");
+                continue;
+            }
+            Map<String, Object> current = entry.getValue();
+            for (String percentile : List.of("p95Ms", "p99Ms")) {
+                double limit = ((Number) base.get(percentile)).doubleValue() * (1 + tolerance);
+                double value = ((Number) current.get(percentile)).doubleValue();
+                if (value > limit) {
+                    regressions.add(String.format(Locale.ROOT, "%s: %s %.1f > %.1f", entry.getKey(), percentile, value, limit));
+                }
+            }
+            double minThroughput = ((Number) base.get("throughput")).doubleValue() * (1 - tolerance);
+            double throughput = ((Number) current.get("throughput")).doubleValue();
+            if (throughput < minThroughput) {
+                regressions.add(String.format(Locale.ROOT, "%s: throughput %.1f < %.1f", entry.getKey(), throughput, minThroughput));
+            }
+        }
+        return regressions;
+    }
+
+    // Each test writes only its own scenarios, so both files are merged rather than replaced.
+    @SuppressWarnings("unchecked")
+    private void merge(Path file, Map<String, Map<String, Object>> entries) throws Exception {
+        Map<String, Object> merged = Files.exists(file) ? mapper.readValue(file.toFile(), LinkedHashMap.class) : new LinkedHashMap<>();
+        merged.putAll(entries);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        mapper.writeValue(file.toFile(), merged);
+    }
+
+    private URI uri(String path) {
+        return uri(port, path);
+    }
+
+    private static URI uri(int serverPort, String path) {
+        return URI.create("http://localhost:" + serverPort + path);
+    }
+
+    static final class LatencyStats {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void record(long elapsed, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = elapsed;
+        }
+
+        synchronized double errorRate() {
+            int total = count + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        synchronized double percentileMs(double p) {
+            if (count == 0) return 0;
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+        }
+
+        synchronized Map<String, Object> toMap(int seconds) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", count + errors);
+            map.put("errors", errors);
+            map.put("throughput", round((double) count / seconds));
+            map.put("p50Ms", round(percentileMs(0.50)));
+            map.put("p95Ms", round(percentileMs(0.95)));
+            map.put("p99Ms", round(percentileMs(0.99)));
+            return map;
+        }
+
+        synchronized String format(String name, int seconds) {
+            return String.format(Locale.ROOT, "%-16s %9d %8d %9.1f %9.1f %9.1f %9.1f",
+                name, count + errors, errors, (double) count / seconds,
+                percentileMs(0.50), percentileMs(0.95), percentileMs(0.99));
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
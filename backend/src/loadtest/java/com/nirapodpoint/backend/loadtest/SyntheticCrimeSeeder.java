@@ -0,0 +1,95 @@
+package com.nirapodpoint.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.service.DistrictUtil;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates crimes that look like production data: common types far outnumber rare ones, recent
+ * crimes outnumber old ones, and points cluster around road nodes of the osm_graphs tiles.
+ */
+final class SyntheticCrimeSeeder {
+    private static final String[] TYPES = {"theft", "harassment", "robbery", "assault", "other", "kidnap", "rape", "murder"};
+    private static final int[] TYPE_WEIGHTS = {35, 20, 15, 12, 10, 4, 2, 2};
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Random random;
+
+    SyntheticCrimeSeeder(MongoTemplate mongoTemplate, long seed) {
+        this.mongoTemplate = mongoTemplate;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Road node coordinates of a tile as {lat, lng} pairs.
+     */
+    static List<double[]> tileNodes(String tile) throws IOException {
+        try (InputStream is = new ClassPathResource("osm_graphs/" + tile + ".json").getInputStream()) {
+            JsonNode root = new ObjectMapper().readTree(is);
+            List<double[]> nodes = new ArrayList<>();
+            for (JsonNode n : root.get("nodes")) {
+                nodes.add(new double[]{n.get("lat").asDouble(), n.get("lng").asDouble()});
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Inserts {@code count} crimes scattered within about 150 m of randomly chosen nodes.
+     */
+    int seed(List<double[]> nodes, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CrimeReport> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            double[] anchor = nodes.get(random.nextInt(nodes.size()));
+            double lat = anchor[0] + random.nextGaussian() * 0.0015;
+            double lng = anchor[1] + random.nextGaussian() * 0.0015;
+            CrimeReport crime = new CrimeReport();
+            crime.setType(randomType());
+            crime.setDescription("synthetic");
+            crime.setLocation(new GeoJsonPoint(lng, lat));
+            // Exponential age with a mean of 30 days: most crimes are recent, a long tail is not.
+            crime.setTime(now.minusMinutes((long) (-Math.log(1 - random.nextDouble()) * 30 * 24 * 60)));
+            crime.setReporter("loadtest-" + random.nextInt(200) + "@example.com");
+            crime.setDistrict(DistrictUtil.findDistrict(lat, lng));
+            batch.add(crime);
+            if (batch.size() == BATCH_SIZE) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+        return count;
+    }
+
+    private void flush(List<CrimeReport> batch) {
+        if (batch.isEmpty()) return;
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class)
+            .insert(batch)
+            .execute();
+        batch.clear();
+    }
+
+    private String randomType() {
+        int total = 0;
+        for (int w : TYPE_WEIGHTS) total += w;
+        int r = random.nextInt(total);
+        for (int i = 0; i < TYPES.length; i++) {
+            r -= TYPE_WEIGHTS[i];
+            if (r < 0) return TYPES[i];
+        }
+        return TYPES[TYPES.length - 1];
+    }
+}
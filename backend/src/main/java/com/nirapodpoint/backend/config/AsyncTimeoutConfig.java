@@ -0,0 +1,34 @@
+package com.nirapodpoint.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Lets one handler give its streamed response a longer timeout than the default async timeout: it
+ * sets {@link #TIMEOUT_ATTRIBUTE} (milliseconds) on the request before returning the body.
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeoutMs";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Runs after the default timeout is applied and before the request goes async.
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long ms && request instanceof AsyncWebRequest async) {
+                    async.setTimeout(ms);
+                }
+            }
+        });
+    }
+}
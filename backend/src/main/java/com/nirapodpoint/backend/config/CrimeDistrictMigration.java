@@ -0,0 +1,77 @@
+package com.nirapodpoint.backend.config;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.DistrictCrimeStats;
+import com.nirapodpoint.backend.service.CrimeReportService;
+import com.nirapodpoint.backend.service.DistrictStatsService;
+import com.nirapodpoint.backend.service.DistrictUtil;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import jakarta.annotation.PostConstruct;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Stores the resolved district on every crime report. Reports without one are always backfilled;
+ * when the district boundaries change (see {@link DistrictUtil#BOUNDARY_VERSION}) every report is
+ * recomputed and the district statistics are rebuilt from the new assignment. The statistics are also
+ * built here when they are missing, so the stats endpoint never has to rebuild on a request thread.
+ */
+@Configuration
+public class CrimeDistrictMigration {
+    private static final int BATCH_SIZE = 500;
+    private static final String MARKER_COLLECTION = "migrations";
+    private static final String MARKER_ID = "crime_districts";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
+    @PostConstruct
+    public void backfillDistricts() {
+        Document marker = mongoTemplate.findById(MARKER_ID, Document.class, MARKER_COLLECTION);
+        boolean recompute = marker == null || !DistrictUtil.BOUNDARY_VERSION.equals(marker.getString("version"));
+        Query query = recompute ? new Query() : new Query(Criteria.where("district").exists(false));
+        query.fields().include("location").include("district");
+        int changed = 0;
+        try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+            BulkOperations bulk = null;
+            int pending = 0;
+            Iterator<CrimeReport> it = crimes.iterator();
+            while (it.hasNext()) {
+                CrimeReport crime = it.next();
+                String district = CrimeReportService.resolveDistrict(crime);
+                if (recompute && Objects.equals(district, crime.getDistrict())) continue;
+                if (crime.getDistrict() != null) changed++;
+                if (bulk == null) bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class);
+                bulk.updateOne(
+                    new Query(Criteria.where("_id").is(crime.getId())),
+                    new Update().set("district", district)
+                );
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) bulk.execute();
+        }
+        boolean statsMissing = !mongoTemplate.exists(new Query(), DistrictCrimeStats.class)
+            && mongoTemplate.exists(new Query(), CrimeReport.class);
+        if (changed > 0 || statsMissing) districtStatsService.rebuild();
+        if (recompute) {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(MARKER_ID)),
+                new Update().set("version", DistrictUtil.BOUNDARY_VERSION), MARKER_COLLECTION);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.nirapodpoint.backend.config;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.service.CrimeTypeUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import jakarta.annotation.PostConstruct;
+
+import java.util.List;
+
+@Configuration
+public class CrimeTypeMigration {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void normalizeCrimeTypes() {
+        List<String> types = mongoTemplate.findDistinct(new Query(), "type", CrimeReport.class, String.class);
+        for (String type : types) {
+            String code = CrimeTypeUtil.normalize(type);
+            if (code == null || code.equals(type)) continue;
+            mongoTemplate.updateMulti(
+                new Query(Criteria.where("type").is(type)),
+                new Update().set("type", code),
+                CrimeReport.class
+            );
+        }
+    }
+}
@@ -6,18 +6,93 @@ import org.springframework.data.mongodb.core.index.GeospatialIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import jakarta.annotation.PostConstruct;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.domain.Sort;
+import org.bson.Document;
+
+import java.time.Duration;
 
 @Configuration
 public class MongoConfig {
-    
+
     @Autowired
     private MongoTemplate mongoTemplate;
-    
+
     @PostConstruct
     public void initIndexes() {
-        
+        ensureCrimeReportIndexes(mongoTemplate);
+        ensureMailOutboxIndexes(mongoTemplate);
+        ensureUserIndexes(mongoTemplate);
+    }
+
+    public static void ensureUserIndexes(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps("users")
+            .ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("createdAt_id"));
+
+        mongoTemplate.indexOps("users")
+            .ensureIndex(new Index()
+                .on("isVerified", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("isVerified_createdAt_id"));
+    }
+
+    public static void ensureMailOutboxIndexes(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps("mail_outbox")
+            .ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC)
+                .named("status_nextAttemptAt"));
+
+        mongoTemplate.indexOps("mail_outbox")
+            .ensureIndex(new Index()
+                .on("sentAt", Sort.Direction.ASC)
+                .expire(Duration.ofDays(7))
+                .named("sentAt_ttl"));
+
+        // Failed messages are kept longer so the error can be looked into, but not forever.
+        mongoTemplate.indexOps("mail_outbox")
+            .ensureIndex(new Index()
+                .on("failedAt", Sort.Direction.ASC)
+                .expire(Duration.ofDays(30))
+                .named("failedAt_ttl"));
+    }
+
+    public static void ensureCrimeReportIndexes(MongoTemplate mongoTemplate) {
+
         mongoTemplate.indexOps("crime_reports")
             .ensureIndex(new GeospatialIndex("location")
                 .typed(GeoSpatialIndexType.GEO_2DSPHERE));
+
+        mongoTemplate.indexOps("crime_reports")
+            .ensureIndex(new Index()
+                .on("time", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("time_id"));
+
+        mongoTemplate.indexOps("crime_reports")
+            .ensureIndex(new Index()
+                .on("type", Sort.Direction.ASC)
+                .on("time", Sort.Direction.DESC)
+                .named("type_time"));
+
+        mongoTemplate.indexOps("crime_reports")
+            .ensureIndex(new Index()
+                .on("reporter", Sort.Direction.ASC)
+                .named("reporter"));
+
+        mongoTemplate.indexOps("crime_reports")
+            .ensureIndex(new Index()
+                .on("district", Sort.Direction.ASC)
+                .named("district"));
+
+        mongoTemplate.indexOps("crime_reports")
+            .ensureIndex(new CompoundIndexDefinition(
+                new Document("location", "2dsphere").append("type", 1).append("time", -1))
+                .named("location_type_time"));
     }
-}
\ No newline at end of file
+}
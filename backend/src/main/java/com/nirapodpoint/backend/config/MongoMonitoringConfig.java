@@ -0,0 +1,15 @@
+package com.nirapodpoint.backend.config;
+
+import com.nirapodpoint.backend.service.MongoCommandMonitor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoMonitoringConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMonitorCustomizer(MongoCommandMonitor monitor) {
+        return settings -> settings.addCommandListener(monitor);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nirapodpoint.backend.config;
+
+import com.nirapodpoint.backend.service.BlobStore;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import jakarta.annotation.PostConstruct;
+
+import java.util.stream.Stream;
+
+/**
+ * Moves NID and photo images that were stored inline as base64 on user documents into the blob store.
+ */
+@Configuration
+public class UserBlobMigration {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @PostConstruct
+    public void moveInlineImages() {
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("nidFront").exists(true),
+            Criteria.where("nidBack").exists(true),
+            Criteria.where("photo").exists(true)
+        ));
+        query.fields().include("nidFront").include("nidBack").include("photo");
+        try (Stream<Document> users = mongoTemplate.stream(query, Document.class, "users")) {
+            users.forEach(user -> {
+                Update update = new Update();
+                migrate(user, "nidFront", "nidFrontBlobId", "image/jpeg", update);
+                migrate(user, "nidBack", "nidBackBlobId", "image/jpeg", update);
+                migrate(user, "photo", "photoBlobId", "image/png", update);
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.get("_id"))), update, "users");
+            });
+        }
+    }
+
+    private void migrate(Document user, String inlineField, String blobField, String contentType, Update update) {
+        String inline = user.getString(inlineField);
+        if (inline != null && !inline.isEmpty()) {
+            update.set(blobField, blobStore.storeDataUrl(inline, inlineField, contentType));
+        }
+        update.unset(inlineField);
+    }
+}
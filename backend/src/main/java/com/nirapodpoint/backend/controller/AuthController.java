@@ -3,7 +3,9 @@ package com.nirapodpoint.backend.controller;
 import com.nirapodpoint.backend.model.User;
 import com.nirapodpoint.backend.service.UserService;
 import com.nirapodpoint.backend.security.JwtUtil;
+import com.nirapodpoint.backend.security.BlobUrlSigner;
 import com.nirapodpoint.backend.service.MailService;
+import com.nirapodpoint.backend.service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +22,8 @@ public class AuthController {
     private JwtUtil jwtUtil;
     @Autowired
     private MailService mailService;
+    @Autowired
+    private BlobUrlSigner blobUrlSigner;
 
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(
@@ -36,6 +40,8 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body("Registration successful! Please wait for admin verification.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Registration failed");
         }
@@ -49,6 +55,8 @@ public class AuthController {
             return ResponseEntity.ok(new JwtResponse(jwt, user.isVerified(), user.getName()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
         }
     }
 
@@ -57,13 +65,15 @@ public class AuthController {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
-        return ResponseEntity.ok(new UserInfo(user.getId(), user.getName(), user.getEmail(), user.getPhone(), user.isVerified(), user.isAdmin(), user.getCreatedAt(), user.getPhoto()));
+        return ResponseEntity.ok(new UserInfo(user.getId(), user.getName(), user.getEmail(), user.getPhone(), user.isVerified(), user.isAdmin(), user.getCreatedAt(), blobUrlSigner.url(user.getPhotoBlobId())));
     }
     @PostMapping("/request-reset")
     public ResponseEntity<?> requestPasswordReset(@RequestBody ResetRequest req) {
         try {
             userService.generateAndSendOtp(req.getEmail(), mailService);
             return ResponseEntity.ok("OTP sent to your email (valid for 5 minutes)");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -81,6 +91,8 @@ public class AuthController {
         try {
             userService.resetPasswordWithOtp(req.getEmail(), req.getOtp(), req.getNewPassword());
             return ResponseEntity.ok("Password reset successful");
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -0,0 +1,40 @@
+package com.nirapodpoint.backend.controller;
+
+import com.nirapodpoint.backend.security.BlobUrlSigner;
+import com.nirapodpoint.backend.service.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/blobs")
+@CrossOrigin(origins = "*")
+public class BlobController {
+    @Autowired
+    private BlobStore blobStore;
+    @Autowired
+    private BlobUrlSigner blobUrlSigner;
+
+    // Range requests are handled by Spring MVC for Resource bodies.
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getBlob(@PathVariable String id,
+                                           @RequestParam long exp,
+                                           @RequestParam String sig) {
+        if (!blobUrlSigner.verify(id, exp, sig)) {
+            return ResponseEntity.status(403).build();
+        }
+        return blobStore.load(id)
+            .<ResponseEntity<Resource>>map(blob -> ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(blob.getContentType()))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .body(blob))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
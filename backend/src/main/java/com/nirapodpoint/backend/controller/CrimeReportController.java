@@ -1,12 +1,29 @@
 package com.nirapodpoint.backend.controller;
 
+import com.nirapodpoint.backend.config.AsyncTimeoutConfig;
 import com.nirapodpoint.backend.model.CrimeReport;
 import com.nirapodpoint.backend.service.CrimeReportService;
+import com.nirapodpoint.backend.service.CrimeClusterIndex;
+import com.nirapodpoint.backend.service.DistrictStatsService;
+import com.nirapodpoint.backend.service.CrimeAnalyticsCube;
+import com.nirapodpoint.backend.service.HotspotService;
+import com.nirapodpoint.backend.service.CrimeImportService;
+import com.nirapodpoint.backend.service.CrimeExportService;
+import com.nirapodpoint.backend.service.CrimeDataFormat;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +33,20 @@ import java.util.Map;
 public class CrimeReportController {
     @Autowired
     private CrimeReportService crimeReportService;
+    @Autowired
+    private DistrictStatsService districtStatsService;
+    @Autowired
+    private CrimeAnalyticsCube crimeAnalyticsCube;
+    @Autowired
+    private HotspotService hotspotService;
+    @Autowired
+    private CrimeImportService crimeImportService;
+    @Autowired
+    private CrimeExportService crimeExportService;
+
+    // Full exports outlive the default async timeout; only this response gets the long one.
+    @Value("${crimes.export.timeout-minutes:30}")
+    private long exportTimeoutMinutes;
 
     @PostMapping
     public ResponseEntity<CrimeReport> createCrimeReport(@RequestBody CrimeReport report, @AuthenticationPrincipal com.nirapodpoint.backend.model.User user) {
@@ -23,33 +54,124 @@ public class CrimeReportController {
         return ResponseEntity.ok(crimeReportService.createCrimeReport(report));
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importCrimeReports(InputStream body,
+                                                @RequestHeader("Content-Type") String contentType,
+                                                @AuthenticationPrincipal com.nirapodpoint.backend.model.User user) {
+        if (user == null || !user.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        try {
+            return ResponseEntity.ok(crimeImportService.importCrimes(body, CrimeDataFormat.fromContentType(contentType), user.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Import failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<?> exportCrimeReports(
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLng,
+            @AuthenticationPrincipal com.nirapodpoint.backend.model.User user,
+            HttpServletRequest request) {
+        if (user == null || !user.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeoutMinutes * 60_000);
+        CrimeDataFormat dataFormat = format.equalsIgnoreCase("csv") ? CrimeDataFormat.CSV : CrimeDataFormat.NDJSON;
+        StreamingResponseBody body = out -> crimeExportService.export(
+                out, dataFormat, from, to, type, minLat, maxLat, minLng, maxLng);
+        return ResponseEntity.ok()
+                .contentType(dataFormat == CrimeDataFormat.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header("Content-Disposition", "attachment; filename=crimes." + dataFormat.name().toLowerCase())
+                .body(body);
+    }
+
     @GetMapping("/district-stats")
     public ResponseEntity<?> getDistrictStats() {
-        return ResponseEntity.ok(crimeReportService.getDistrictStatistics());
+        return ResponseEntity.ok(districtStatsService.getDistrictStatistics());
+    }
+
+    @PostMapping("/district-stats/rebuild")
+    public ResponseEntity<?> rebuildDistrictStats(@AuthenticationPrincipal com.nirapodpoint.backend.model.User user) {
+        if (user == null || !user.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        int districts = districtStatsService.rebuild();
+        return ResponseEntity.ok(Map.of("districts", districts));
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getCrimeAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false, defaultValue = "false") boolean hourly
+    ) {
+        try {
+            return ResponseEntity.ok(crimeAnalyticsCube.query(from, to, district, type, hourly));
+        } catch (CrimeAnalyticsCube.NotReadyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/hotspots")
+    public ResponseEntity<?> getHotspots(@RequestParam(required = false, defaultValue = "10") int limit) {
+        return ResponseEntity.ok(hotspotService.getHotspots(Math.max(0, limit)));
     }
 
     @GetMapping
-    public ResponseEntity<List<CrimeReport>> getAllCrimeReports(
+    public ResponseEntity<?> getAllCrimeReports(
             @RequestParam(required = false) String type,
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "100") int size,
             @RequestParam(required = false) Double minLat,
             @RequestParam(required = false) Double maxLat,
             @RequestParam(required = false) Double minLng,
-            @RequestParam(required = false) Double maxLng
+            @RequestParam(required = false) Double maxLng,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields
     ) {
-        return ResponseEntity.ok(crimeReportService.getCrimeReports(type, page, size, minLat, maxLat, minLng, maxLng));
+        try {
+            CrimeReportService.CrimePage result = crimeReportService.getCrimeReports(
+                    type, page, size, minLat, maxLat, minLng, maxLng, cursor, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (result.nextCursor != null) {
+                response.header("X-Next-Cursor", result.nextCursor);
+            }
+            return response.body(result.items);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/bounds")
-    public ResponseEntity<Map<String, Object>> getCrimesInBounds(
+    public ResponseEntity<?> getCrimesInBounds(
             @RequestParam Double minLat,
             @RequestParam Double maxLat,
             @RequestParam Double minLng,
             @RequestParam Double maxLng,
-            @RequestParam(required = false) String type
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer zoom
     ) {
-        return ResponseEntity.ok(crimeReportService.getCrimesInBounds(minLat, maxLat, minLng, maxLng, type));
+        try {
+            return ResponseEntity.ok(crimeReportService.getCrimesInBounds(minLat, maxLat, minLng, maxLng, type, zoom));
+        } catch (CrimeClusterIndex.NotReadyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
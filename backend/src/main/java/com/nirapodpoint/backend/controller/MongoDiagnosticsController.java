@@ -0,0 +1,37 @@
+package com.nirapodpoint.backend.controller;
+
+import com.nirapodpoint.backend.model.User;
+import com.nirapodpoint.backend.service.MongoCommandMonitor;
+import com.nirapodpoint.backend.service.MongoExplainService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/mongo")
+@CrossOrigin(origins = "*")
+public class MongoDiagnosticsController {
+    @Autowired
+    private MongoCommandMonitor monitor;
+    @Autowired
+    private MongoExplainService explainService;
+
+    @GetMapping("/slow-queries")
+    public ResponseEntity<?> getSlowQueries(@AuthenticationPrincipal User admin) {
+        if (admin == null || !admin.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        return ResponseEntity.ok(monitor.slowQueries());
+    }
+
+    @GetMapping("/slow-queries/{id}/explain")
+    public ResponseEntity<?> explainSlowQuery(@AuthenticationPrincipal User admin, @PathVariable String id) {
+        if (admin == null || !admin.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        return explainService.explain(id)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -2,10 +2,23 @@ package com.nirapodpoint.backend.controller;
 
 import com.nirapodpoint.backend.model.RouteRequest;
 import com.nirapodpoint.backend.model.RouteResponse;
+import com.nirapodpoint.backend.model.WhatIfRouteRequest;
+import com.nirapodpoint.backend.service.CostLimiter;
 import com.nirapodpoint.backend.service.RouteService;
+import com.nirapodpoint.backend.service.RouteStreamListener;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @RestController
 @RequestMapping("/api/routes")
@@ -13,12 +26,107 @@ import org.springframework.web.bind.annotation.*;
 public class RouteController {
     @Autowired
     private RouteService routeService;
+    @Autowired
+    private CostLimiter costLimiter;
+
+    @Value("${routes.stream.budget-ms:3000}")
+    private long defaultBudgetMs;
+    @Value("${routes.stream.max-budget-ms:15000}")
+    private long maxBudgetMs;
+
+    private final ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
+    }
 
     @PostMapping("/safest")
-    public ResponseEntity<RouteResponse> getSafestRoute(@RequestBody RouteRequest request) {
-        RouteResponse response = routeService.findSafestRoute(request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> getSafestRoute(@RequestBody RouteRequest request) {
+        try (CostLimiter.Permit permit = costLimiter.acquire(routeService.estimateRouteCost(request))) {
+            RouteResponse response = routeService.findSafestRoute(request);
+            return ResponseEntity.ok(response);
+        } catch (CostLimiter.OverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/what-if")
+    public ResponseEntity<?> whatIfRoute(@RequestBody WhatIfRouteRequest request) {
+        RouteRequest routeReq = new RouteRequest();
+        routeReq.setStartLat(request.getStartLat());
+        routeReq.setStartLng(request.getStartLng());
+        routeReq.setEndLat(request.getEndLat());
+        routeReq.setEndLng(request.getEndLng());
+        routeReq.setNetworkType(request.getNetworkType());
+        try (CostLimiter.Permit permit = costLimiter.acquire(routeService.estimateWhatIfCost(routeReq, request.getAlternatives()))) {
+            return ResponseEntity.ok(routeService.findWhatIfRoute(request));
+        } catch (CostLimiter.OverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Events: progress {stage}, approximate {route}, route {route, complete}, error {message}.
+    @PostMapping(value = "/safest/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamSafestRoute(@RequestBody RouteRequest request,
+                                               @RequestParam(required = false) Long budgetMs) {
+        long budget = Math.max(100, Math.min(budgetMs != null ? budgetMs : defaultBudgetMs, maxBudgetMs));
+        CostLimiter.Permit permit;
+        try {
+            permit = costLimiter.acquire(routeService.estimateRouteCost(request));
+        } catch (CostLimiter.OverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                .contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        }
+        SseEmitter emitter = new SseEmitter(budget + 30_000);
+        try {
+            streams.execute(() -> {
+                try (permit) {
+                    stream(request, budget, emitter);
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void stream(RouteRequest request, long budget, SseEmitter emitter) {
+        try {
+            routeService.streamSafestRoute(request, budget, new RouteStreamListener() {
+                @Override
+                public void progress(String stage) throws IOException {
+                    emitter.send(SseEmitter.event().name("progress").data(Map.of("stage", stage)));
+                }
+
+                @Override
+                public void approximate(RouteResponse route) throws IOException {
+                    emitter.send(SseEmitter.event().name("approximate").data(route));
+                }
+
+                @Override
+                public void route(RouteResponse route, boolean complete) throws IOException {
+                    emitter.send(SseEmitter.event().name("route")
+                        .data(Map.of("route", route.getRoute(), "complete", complete)));
+                }
+            });
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // client disconnected or the emitter timed out
+            emitter.completeWithError(e);
+        } catch (Exception e) {
+            try {
+                emitter.send(SseEmitter.event().name("error").data(Map.of("message", String.valueOf(e.getMessage()))));
+                emitter.complete();
+            } catch (IOException | IllegalStateException sendFailed) {
+                emitter.completeWithError(sendFailed);
+            }
+        }
     }
+
      public static class DebugCrimeCheckRequest {
         private double crimeLat;
         private double crimeLng;
@@ -51,7 +159,12 @@ public class RouteController {
         routeReq.setEndLat(req.getEndLat());
         routeReq.setEndLng(req.getEndLng());
         routeReq.setNetworkType(req.getNetworkType());
-        RouteService.CrimeRouteDebugResult debugResult = routeService.isCrimeOnRouteWithRoute(req.getCrimeLat(), req.getCrimeLng(), routeReq);
+        RouteService.CrimeRouteDebugResult debugResult;
+        try (CostLimiter.Permit permit = costLimiter.acquire(routeService.estimateWhatIfCost(routeReq, 3))) {
+            debugResult = routeService.isCrimeOnRouteWithRoute(req.getCrimeLat(), req.getCrimeLng(), routeReq);
+        } catch (CostLimiter.OverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
+        }
         java.util.Map<String, Object> resp = new java.util.HashMap<>();
         resp.put("result", debugResult.result ? "yes" : "no");
         resp.put("route", debugResult.route);
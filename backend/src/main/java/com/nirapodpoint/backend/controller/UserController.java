@@ -4,8 +4,13 @@ import com.nirapodpoint.backend.model.User;
 import com.nirapodpoint.backend.repository.UserRepository;
 import com.nirapodpoint.backend.service.MailService;
 import com.nirapodpoint.backend.service.UserService;
+import com.nirapodpoint.backend.service.PasswordHashingService;
+import com.nirapodpoint.backend.service.CrimeReportService;
 import com.nirapodpoint.backend.repository.CrimeReportRepository;
-import jakarta.mail.MessagingException;
+import com.nirapodpoint.backend.security.PrincipalCache;
+import com.nirapodpoint.backend.security.BlobUrlSigner;
+import com.nirapodpoint.backend.service.BlobStore;
+import com.nirapodpoint.backend.service.UserCrimeCountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +20,10 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,21 +43,89 @@ public class UserController {
     private UserService userService;
     @Autowired
     private CrimeReportRepository crimeReportRepository;
+    @Autowired
+    private CrimeReportService crimeReportService;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private BlobStore blobStore;
+    @Autowired
+    private BlobUrlSigner blobUrlSigner;
+    @Autowired
+    private UserCrimeCountService userCrimeCountService;
 
     
     @GetMapping
     public ResponseEntity<?> getAllUsers(@AuthenticationPrincipal User admin,
-                                         @RequestParam(value = "verified", required = false, defaultValue = "all") String verified) {
+                                         @RequestParam(value = "verified", required = false, defaultValue = "all") String verified,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "50") int size,
+                                         @RequestParam(defaultValue = "desc") String order,
+                                         @RequestParam(required = false) String cursor) {
         if (admin == null || !admin.isAdmin()) {
             return ResponseEntity.status(403).body("Forbidden: Admins only");
         }
-        List<User> users = userRepository.findAll();
-        if (verified.equals("true")) {
-            users = users.stream().filter(User::isVerified).collect(Collectors.toList());
-        } else if (verified.equals("false")) {
-            users = users.stream().filter(u -> !u.isVerified()).collect(Collectors.toList());
+        try {
+            UserService.UserPage users = userService.listUsers(verified, page, size, order, cursor);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(users.total));
+            if (users.nextCursor != null) {
+                response.header("X-Next-Cursor", users.nextCursor);
+            }
+            return response.body(users.items.stream().map(this::toSummary).collect(Collectors.toList()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(users);
+    }
+
+    private UserSummary toSummary(User u) {
+        return new UserSummary(u.getId(), u.getName(), u.getEmail(), u.getPhone(), u.isVerified(), u.isAdmin(), u.getCreatedAt(),
+            blobUrlSigner.url(u.getPhotoBlobId()), blobUrlSigner.url(u.getNidFrontBlobId()), blobUrlSigner.url(u.getNidBackBlobId()));
+    }
+
+    private String dataUrl(String blobId) throws IOException {
+        BlobStore.BlobResource blob = blobStore.load(blobId).orElseThrow(() -> new IllegalStateException("Image not found"));
+        try (InputStream in = blob.getInputStream()) {
+            return "data:" + blob.getContentType() + ";base64," + Base64.getEncoder().encodeToString(in.readAllBytes());
+        }
+    }
+
+    public static class UserSummary {
+        private String id;
+        private String name;
+        private String email;
+        private String phone;
+        private boolean isVerified;
+        private boolean isAdmin;
+        private LocalDateTime createdAt;
+        private String photo;
+        private String nidFront;
+        private String nidBack;
+        public UserSummary(String id, String name, String email, String phone, boolean isVerified, boolean isAdmin,
+                           LocalDateTime createdAt, String photo, String nidFront, String nidBack) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+            this.isVerified = isVerified;
+            this.isAdmin = isAdmin;
+            this.createdAt = createdAt;
+            this.photo = photo;
+            this.nidFront = nidFront;
+            this.nidBack = nidBack;
+        }
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public boolean isVerified() { return isVerified; }
+        public boolean isAdmin() { return isAdmin; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public String getPhoto() { return photo; }
+        public String getNidFront() { return nidFront; }
+        public String getNidBack() { return nidBack; }
     }
 
     
@@ -67,7 +144,7 @@ public class UserController {
         
         if (approve) {
             
-            if (user.getNidFront() == null || user.getPhoto() == null) {
+            if (user.getNidFrontBlobId() == null || user.getPhotoBlobId() == null) {
                 return ResponseEntity.status(400).body(Map.of(
                     "verified", false,
                     "message", "NID front or real-time photo missing. Cannot verify user."
@@ -78,8 +155,8 @@ public class UserController {
                 RestTemplate restTemplate = new RestTemplate();
                 String pythonUrl = "http://localhost:5001/verify";
                 Map<String, String> req = new HashMap<>();
-                req.put("nid", user.getNidFront().startsWith("data:") ? user.getNidFront() : "data:image/jpeg;base64," + user.getNidFront());
-                req.put("selfie", user.getPhoto().startsWith("data:") ? user.getPhoto() : "data:image/png;base64," + user.getPhoto());
+                req.put("nid", dataUrl(user.getNidFrontBlobId()));
+                req.put("selfie", dataUrl(user.getPhotoBlobId()));
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, String>> entity = new HttpEntity<>(req, headers);
@@ -103,12 +180,9 @@ public class UserController {
                 
                 user.setVerified(true);
                 userRepository.save(user);
+                principalCache.invalidate(user.getEmail());
                 if (wasUnverified) {
-                    try {
-                        mailService.sendVerificationApprovedEmail(user.getEmail(), user.getName());
-                    } catch (MessagingException e) {
-                        e.printStackTrace();
-                    }
+                    mailService.sendVerificationApprovedEmail(user.getEmail(), user.getName());
                 }
                 return ResponseEntity.ok(Map.of(
                     "verified", true,
@@ -124,16 +198,13 @@ public class UserController {
         } else {
             
             if (wasVerified) {
-                try {
-                    mailService.sendVerificationDisapprovedEmail(user.getEmail(), user.getName());
-                } catch (MessagingException e) {
-                    e.printStackTrace();
-                }
+                mailService.sendVerificationDisapprovedEmail(user.getEmail(), user.getName());
                 
-                crimeReportRepository.deleteByReporter(user.getId());
+                crimeReportService.deleteCrimeReportsByReporter(user.getId());
             }
             user.setVerified(false);
             userRepository.save(user);
+            principalCache.invalidate(user.getEmail());
             return ResponseEntity.ok(Map.of(
                 "verified", false,
                 "message", "User disapproved."
@@ -144,15 +215,28 @@ public class UserController {
     
     @PatchMapping("/me")
     public ResponseEntity<?> updateOwnInfo(@AuthenticationPrincipal User user,
-                                           @RequestBody User update) {
+                                           @RequestBody UpdateProfileRequest update) {
         if (user == null) return ResponseEntity.status(401).body("Unauthorized");
-        // Only update fields that are present (not null) in the request
-        if (update.getName() != null) user.setName(update.getName());
-        if (update.getEmail() != null) user.setEmail(update.getEmail());
-        if (update.getPhone() != null) user.setPhone(update.getPhone());
-        if (update.getPhoto() != null && !update.getPhoto().isEmpty()) user.setPhoto(update.getPhoto());
-        userRepository.save(user);
-        return ResponseEntity.ok(user);
+        try {
+            return ResponseEntity.ok(userService.updateProfile(user, update.getName(), update.getEmail(), update.getPhone(), update.getPhoto()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    public static class UpdateProfileRequest {
+        private String name;
+        private String email;
+        private String phone;
+        private String photo;
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+        public String getPhone() { return phone; }
+        public void setPhone(String phone) { this.phone = phone; }
+        public String getPhoto() { return photo; }
+        public void setPhoto(String photo) { this.photo = photo; }
     }
 
     public static class ChangePasswordRequest {
@@ -171,6 +255,8 @@ public class UserController {
         try {
             userService.changePassword(user, req.getCurrentPassword(), req.getNewPassword());
             return ResponseEntity.ok("Password changed successfully");
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -190,14 +276,18 @@ public class UserController {
         if (admin == null || !admin.isAdmin()) {
             return ResponseEntity.status(403).body("Forbidden: Admins only");
         }
-        List<User> users = userRepository.findAll();
-        Map<String, Long> counts = new HashMap<>();
-        for (User u : users) {
-            counts.put(u.getId(), crimeReportRepository.countByReporter(u.getId()));
-        }
+        Map<String, Long> counts = userCrimeCountService.countsByReporter();
         return ResponseEntity.ok(counts);
     }
 
+    @GetMapping("/password-hashing-stats")
+    public ResponseEntity<?> getPasswordHashingStats(@AuthenticationPrincipal User admin) {
+        if (admin == null || !admin.isAdmin()) {
+            return ResponseEntity.status(403).body("Forbidden: Admins only");
+        }
+        return ResponseEntity.ok(passwordHashingService.stats());
+    }
+
     
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@AuthenticationPrincipal User admin, @PathVariable String id) {
@@ -207,8 +297,10 @@ public class UserController {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) return ResponseEntity.status(404).body("User not found");
     
-        crimeReportRepository.deleteByReporter(user.getId());
+        crimeReportService.deleteCrimeReportsByReporter(user.getId());
         userRepository.deleteById(id);
+        userService.deleteBlobs(user);
+        principalCache.invalidate(user.getEmail());
         return ResponseEntity.ok(Map.of("deleted", true, "message", "User and their crimes deleted"));
     }
 } 
\ No newline at end of file
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Data
 @Document(collection = "crime_reports")
 @CompoundIndexes({
-    @CompoundIndex(name = "location_type", def = "{'location': '2dsphere', 'type': 1}")
+    @CompoundIndex(name = "location_type_time", def = "{'location': '2dsphere', 'type': 1, 'time': -1}"),
+    @CompoundIndex(name = "type_time", def = "{'type': 1, 'time': -1}")
 })
 public class CrimeReport {
     @Id
@@ -32,4 +33,7 @@ public class CrimeReport {
 
     @Indexed
     private String reporter;
+
+    @Indexed
+    private String district;
 } 
\ No newline at end of file
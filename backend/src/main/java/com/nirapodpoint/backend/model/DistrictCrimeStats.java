@@ -0,0 +1,20 @@
+package com.nirapodpoint.backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Document(collection = "district_crime_stats")
+public class DistrictCrimeStats {
+    @Id
+    private String district;
+    private long totalCrimes;
+    private double severityScore;
+    private Map<String, Long> typeCounts = new HashMap<>();
+    private Map<String, Long> hourly = new HashMap<>();
+    private Map<String, Long> daily = new HashMap<>();
+}
@@ -0,0 +1,30 @@
+package com.nirapodpoint.backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "mail_outbox")
+public class MailOutboxMessage {
+    public static final String PENDING = "PENDING";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+    private String to;
+    private String subject;
+    private String html;
+    private String status = PENDING;
+    private int attempts;
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    private LocalDateTime lockedUntil;
+    private String lastError;
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime sentAt;
+    private LocalDateTime failedAt;
+}
@@ -14,9 +14,9 @@ public class User {
     private String email;
     private String phone;
     private String password; 
-    private String nidFront; 
-    private String nidBack; 
-    private String photo; 
+    private String nidFrontBlobId;
+    private String nidBackBlobId;
+    private String photoBlobId;
     private boolean isVerified = false;
     private boolean isAdmin = false;
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -0,0 +1,13 @@
+package com.nirapodpoint.backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Document(collection = "user_crime_counts")
+public class UserCrimeCount {
+    @Id
+    private String reporter;
+    private long count;
+}
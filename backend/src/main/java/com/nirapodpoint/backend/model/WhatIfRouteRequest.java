@@ -0,0 +1,27 @@
+package com.nirapodpoint.backend.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class WhatIfRouteRequest {
+    private double startLat;
+    private double startLng;
+    private double endLat;
+    private double endLng;
+    private String networkType;
+    private List<HypotheticalCrime> crimes = new ArrayList<>();
+    private int alternatives = 3;
+
+    @Data
+    public static class HypotheticalCrime {
+        private double lat;
+        private double lng;
+        private String type;
+        // Defaults to now.
+        private LocalDateTime time;
+    }
+}
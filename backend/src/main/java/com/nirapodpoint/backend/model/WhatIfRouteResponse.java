@@ -0,0 +1,26 @@
+package com.nirapodpoint.backend.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class WhatIfRouteResponse {
+    // Safest route with the hypothetical crimes added.
+    private List<RouteResponse.Coordinate> route;
+    private double risk;
+    // Safest route on the current crime data alone, for comparison. Weighted from the same tile
+    // snapshot as route, so it can differ from what /safest returns for the same points.
+    private List<RouteResponse.Coordinate> baseRoute;
+    private double baseRisk;
+    private List<Alternative> alternatives = new ArrayList<>();
+    // Edges the hypothetical crimes added weight to.
+    private int edgesAffected;
+
+    @Data
+    public static class Alternative {
+        private List<RouteResponse.Coordinate> route;
+        private double risk;
+    }
+}
@@ -0,0 +1,36 @@
+package com.nirapodpoint.backend.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limits per endpoint, bound from {@code admission.endpoints.<name>.*}. A request is checked
+ * against the first policy whose method and path pattern match it; unmatched requests are not limited.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // Only behind a proxy that sets X-Forwarded-For itself; otherwise clients pick their own key.
+    private boolean trustForwardedFor = false;
+    private int maxBuckets = 100_000;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Endpoint {
+        private List<String> patterns = new ArrayList<>();
+        private String method;
+        // 0 disables that bucket.
+        private int userPerMinute;
+        private int userBurst;
+        private int ipPerMinute;
+        private int ipBurst;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nirapodpoint.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Builds short-lived signed links to {@code /api/blobs/{id}}, so images can be used directly
+ * as {@code <img src>} without a bearer header. The key is required: every instance behind the
+ * load balancer must sign with the same one, or links would only verify on the node that issued them.
+ */
+@Component
+public class BlobUrlSigner {
+    private final byte[] key;
+    private final long ttlSeconds;
+
+    public BlobUrlSigner(@Value("${blobs.url-signing-key}") String signingKey,
+                         @Value("${blobs.url-ttl-minutes:60}") long ttlMinutes) {
+        if (signingKey == null || signingKey.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("blobs.url-signing-key must be set to at least 32 bytes");
+        }
+        key = signingKey.getBytes(StandardCharsets.UTF_8);
+        ttlSeconds = ttlMinutes * 60;
+    }
+
+    public String url(String blobId) {
+        if (blobId == null) return null;
+        long expires = System.currentTimeMillis() / 1000 + ttlSeconds;
+        return "/api/blobs/" + blobId + "?exp=" + expires + "&sig=" + signature(blobId, expires);
+    }
+
+    public boolean verify(String blobId, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000) return false;
+        byte[] expected = signature(blobId, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(String blobId, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            byte[] digest = mac.doFinal((blobId + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -24,6 +24,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -35,15 +37,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                username = jwtUtil.extractAllClaims(jwt).getSubject();
             } catch (ExpiredJwtException e) {
             } catch (Exception e) {
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            User user = userRepository.findByEmail(username).orElse(null);
-            if (user != null && jwtUtil.validateToken(jwt, user.getEmail())) {
+            User user = principalCache.get(username);
+            if (user == null) {
+                user = userRepository.findByEmail(username).orElse(null);
+                if (user != null) principalCache.put(username, user);
+            }
+            if (user != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         user, null, Collections.emptyList());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
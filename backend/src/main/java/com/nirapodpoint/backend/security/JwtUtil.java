@@ -1,6 +1,7 @@
 package com.nirapodpoint.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -18,6 +19,7 @@ public class JwtUtil {
     private final String SECRET_KEY = "nirapodpoint_secret_key_2024_nirapodpoint_secret_key_2024"; 
     private final long EXPIRATION = 1000 * 60 * 60 * 24 * 7; 
     private final SecretKey key = Keys.hmacShaKeyFor(Base64.getEncoder().encodeToString(SECRET_KEY.getBytes()).getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -32,16 +34,11 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the signature and expiry in a single parse. Throws if either check fails.
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(String username) {
@@ -60,7 +57,7 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(username) && !claims.getExpiration().before(new Date()));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.nirapodpoint.backend.security;
+
+import com.nirapodpoint.backend.model.User;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently authenticated users by email. Entries are private copies and every get hands out a new
+ * one, so a request that changes its principal can never change what other requests see.
+ */
+@Component
+public class PrincipalCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private record Entry(User user, long expiresAt) {}
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized User get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) return null;
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(email);
+            return null;
+        }
+        return copy(entry.user());
+    }
+
+    public synchronized void put(String email, User user) {
+        entries.put(email, new Entry(copy(user), System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void invalidate(String email) {
+        if (email != null) entries.remove(email);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+}
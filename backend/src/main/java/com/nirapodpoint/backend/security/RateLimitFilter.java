@@ -0,0 +1,100 @@
+package com.nirapodpoint.backend.security;
+
+import com.nirapodpoint.backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the per-endpoint token buckets from {@link AdmissionProperties}. Runs after the JWT filter
+ * so signed-in users get their own bucket on top of the one for their IP; anonymous callers only
+ * have the IP bucket. Over-limit requests get 429 with Retry-After before reaching a controller.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final AdmissionProperties properties;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry registry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(AdmissionProperties properties, RateLimiter rateLimiter, MeterRegistry registry) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (properties.isEnabled()) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            for (Map.Entry<String, AdmissionProperties.Endpoint> entry : properties.getEndpoints().entrySet()) {
+                AdmissionProperties.Endpoint endpoint = entry.getValue();
+                if (!matches(endpoint, request.getMethod(), path)) continue;
+                long waitNanos = check(entry.getKey(), endpoint, request);
+                if (waitNanos > 0) {
+                    reject(entry.getKey(), response, waitNanos);
+                    return;
+                }
+                break;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean matches(AdmissionProperties.Endpoint endpoint, String method, String path) {
+        if (endpoint.getMethod() != null && !endpoint.getMethod().equalsIgnoreCase(method)) return false;
+        for (String pattern : endpoint.getPatterns()) {
+            if (pathMatcher.match(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    private long check(String name, AdmissionProperties.Endpoint endpoint, HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (endpoint.getUserPerMinute() > 0 && auth != null && auth.getPrincipal() instanceof User user) {
+            long wait = rateLimiter.tryAcquire(name + ":u:" + user.getEmail(), endpoint.getUserPerMinute(), endpoint.getUserBurst());
+            if (wait > 0) return wait;
+        }
+        if (endpoint.getIpPerMinute() > 0) {
+            return rateLimiter.tryAcquire(name + ":ip:" + clientIp(request), endpoint.getIpPerMinute(), endpoint.getIpBurst());
+        }
+        return 0;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            // The proxy appends the address it saw; anything before that came from the client.
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(String name, HttpServletResponse response, long waitNanos) throws IOException {
+        rejected.computeIfAbsent(name, n -> Counter.builder("admission.rejected")
+            .description("Requests turned away before reaching a controller")
+            .tags("endpoint", n, "reason", "rate")
+            .register(registry)).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000)));
+        response.setContentType("text/plain");
+        response.getWriter().write("Too many requests, please try again shortly");
+    }
+}
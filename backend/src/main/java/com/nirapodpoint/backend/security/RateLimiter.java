@@ -0,0 +1,112 @@
+package com.nirapodpoint.backend.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets keyed by policy and client. A bucket refills continuously at its rate up to its
+ * burst size; a bucket left alone long enough to be full again is the same as no bucket, so the
+ * sweep drops those and the table only holds clients that are actively spending tokens.
+ */
+@Component
+public class RateLimiter {
+    // Buckets looked at when the table is full to find one to evict.
+    private static final int EVICTION_SAMPLE = 32;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AdmissionProperties properties;
+
+    static final class Bucket {
+        private final double perNano;
+        private final double burst;
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int perMinute, int burst, long now) {
+            this.perNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.burst = Math.max(1, burst);
+            this.tokens = this.burst;
+            this.updatedAt = now;
+        }
+
+        /**
+         * Takes a token, or returns how many nanoseconds until one is available.
+         */
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perNano);
+        }
+
+        synchronized long updatedAt() {
+            return updatedAt;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - updatedAt) * perNano);
+            updatedAt = now;
+        }
+    }
+
+    public RateLimiter(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Takes one token from the bucket for {@code key}, creating it full on first use. Returns 0 when
+     * the request may proceed, otherwise the nanoseconds until the client should retry. Once the
+     * table is full of active clients, a new key replaces the least recently used of a sample of
+     * buckets: refusing every newcomer would hand the service to whoever filled the table, and letting
+     * newcomers through unmetered would let anyone skip the limit by rotating keys.
+     */
+    public long tryAcquire(String key, int perMinute, int burst) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxBuckets()) {
+                sweep();
+                if (buckets.size() >= properties.getMaxBuckets()) evictStalest();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(perMinute, burst, now));
+        }
+        return bucket.tryTake(now);
+    }
+
+    private void evictStalest() {
+        Map.Entry<String, Bucket> stalest = null;
+        long oldest = Long.MAX_VALUE;
+        Iterator<Map.Entry<String, Bucket>> it = buckets.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+            Map.Entry<String, Bucket> entry = it.next();
+            long updatedAt = entry.getValue().updatedAt();
+            if (stalest == null || updatedAt - oldest < 0) {
+                stalest = entry;
+                oldest = updatedAt;
+            }
+        }
+        if (stalest != null) buckets.remove(stalest.getKey(), stalest.getValue());
+    }
+
+    @Scheduled(fixedDelayString = "${admission.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
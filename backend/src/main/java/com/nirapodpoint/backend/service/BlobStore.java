@@ -0,0 +1,133 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Images and other binary uploads, kept in GridFS so user documents only carry ids.
+ */
+@Service
+public class BlobStore {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${blobs.bucket:blobs}")
+    private String bucketName;
+
+    private GridFSBucket bucket;
+
+    @PostConstruct
+    public void init() {
+        bucket = GridFSBuckets.create(mongoTemplate.getDb(), bucketName);
+    }
+
+    public String store(InputStream content, String filename, String contentType) {
+        GridFSUploadOptions options = new GridFSUploadOptions()
+            .metadata(new Document("contentType", contentType != null ? contentType : "application/octet-stream"));
+        return bucket.uploadFromStream(filename != null ? filename : "blob", content, options).toHexString();
+    }
+
+    /**
+     * Stores a {@code data:<type>;base64,<payload>} URL (or bare base64), decoding as it streams.
+     */
+    public String storeDataUrl(String dataUrl, String filename, String defaultContentType) {
+        String contentType = defaultContentType;
+        String payload = dataUrl;
+        if (dataUrl.startsWith("data:")) {
+            int comma = dataUrl.indexOf(',');
+            if (comma < 0) throw new IllegalArgumentException("Invalid data URL");
+            String header = dataUrl.substring(5, comma);
+            int semicolon = header.indexOf(';');
+            if (semicolon > 0) contentType = header.substring(0, semicolon);
+            payload = dataUrl.substring(comma + 1);
+        }
+        InputStream decoded = Base64.getMimeDecoder().wrap(
+            new ByteArrayInputStream(payload.getBytes(StandardCharsets.US_ASCII)));
+        return store(decoded, filename, contentType);
+    }
+
+    public Optional<BlobResource> load(String id) {
+        if (id == null || !ObjectId.isValid(id)) return Optional.empty();
+        ObjectId objectId = new ObjectId(id);
+        GridFSFile file = bucket.find(new Document("_id", objectId)).first();
+        return file == null ? Optional.empty() : Optional.of(new BlobResource(bucket, file));
+    }
+
+    public byte[] readAllBytes(String id) throws IOException {
+        BlobResource blob = load(id).orElseThrow(() -> new IllegalArgumentException("Blob not found: " + id));
+        try (InputStream in = blob.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    public void delete(String id) {
+        if (id != null && ObjectId.isValid(id)) {
+            try {
+                bucket.delete(new ObjectId(id));
+            } catch (RuntimeException e) {
+                // already gone
+            }
+        }
+    }
+
+    /**
+     * Opens a fresh download stream on every call, so range requests can read it more than once.
+     */
+    public static class BlobResource extends AbstractResource {
+        private final GridFSBucket bucket;
+        private final GridFSFile file;
+
+        BlobResource(GridFSBucket bucket, GridFSFile file) {
+            this.bucket = bucket;
+            this.file = file;
+        }
+
+        public String getContentType() {
+            Document metadata = file.getMetadata();
+            String type = metadata != null ? metadata.getString("contentType") : null;
+            return type != null ? type : "application/octet-stream";
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return bucket.openDownloadStream(file.getObjectId());
+        }
+
+        @Override
+        public long contentLength() {
+            return file.getLength();
+        }
+
+        @Override
+        public long lastModified() {
+            return file.getUploadDate().getTime();
+        }
+
+        @Override
+        public String getFilename() {
+            return file.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return "GridFS blob [" + file.getObjectId().toHexString() + "]";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nirapodpoint.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the total estimated cost of route computations running at once. A request whose cost does
+ * not fit in what is left gets {@link OverloadedException} immediately rather than waiting, so
+ * overload turns into fast 503s instead of a queue of Tomcat threads. A single request never costs
+ * more than the whole capacity, so even the most expensive one can run on an idle node.
+ */
+@Component
+public class CostLimiter {
+    private final long capacity;
+    private final AtomicLong inUse = new AtomicLong();
+    private final Counter rejected;
+
+    public static class OverloadedException extends RuntimeException {
+        public OverloadedException(String message) {
+            super(message);
+        }
+    }
+
+    public CostLimiter(MeterRegistry registry, @Value("${admission.cost.capacity:400}") long capacity) {
+        this.capacity = Math.max(1, capacity);
+        Gauge.builder("admission.cost.in.use", inUse, AtomicLong::get)
+            .description("Estimated cost of the route computations currently running")
+            .register(registry);
+        Gauge.builder("admission.cost.capacity", () -> this.capacity).register(registry);
+        rejected = Counter.builder("admission.rejected")
+            .description("Requests turned away before reaching a controller")
+            .tags("endpoint", "routes", "reason", "cost")
+            .register(registry);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long inUse() {
+        return inUse.get();
+    }
+
+    /**
+     * Reserves {@code cost} units until the returned permit is closed.
+     */
+    public Permit acquire(long cost) {
+        long units = Math.max(1, Math.min(cost, capacity));
+        long current;
+        do {
+            current = inUse.get();
+            if (current + units > capacity) {
+                rejected.increment();
+                throw new OverloadedException("Server is busy, please try again shortly");
+            }
+        } while (!inUse.compareAndSet(current, current + units));
+        return new Permit(units);
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final long units;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long units) {
+            this.units = units;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                inUse.addAndGet(-units);
+            }
+        }
+    }
+}
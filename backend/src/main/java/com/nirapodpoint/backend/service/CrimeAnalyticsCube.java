@@ -0,0 +1,320 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Crime counts per district, type and day (Fenwick trees) with per-day hour buckets, for range queries
+ * over any date span. Built in the background like {@link CrimeClusterIndex}: queries before the
+ * first build throw {@link NotReadyException}, and deltas that arrive while a build streams are
+ * deferred and replayed against the crimes the stream saw.
+ */
+@Service
+public class CrimeAnalyticsCube implements CrimeReportListener {
+    private static final Logger log = LoggerFactory.getLogger(CrimeAnalyticsCube.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${crimes.analytics.epoch:2015-01-01}")
+    private LocalDate epoch;
+
+    // Guards cube, deferred and generation. Never held while streaming from Mongo.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One build at a time: a second would replace the first one's deferred list.
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private Map<String, Map<String, Series>> cube;
+    private List<Delta> deferred;
+    private int generation;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "crime-cube-build");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Delta(CrimeReport crime, int sign) {}
+
+    public static class NotReadyException extends RuntimeException {
+        public NotReadyException(String message) {
+            super(message);
+        }
+    }
+
+    static class Series {
+        int[] tree = new int[1024];
+        final TreeMap<Integer, int[]> hours = new TreeMap<>();
+
+        void add(int day, int hour, int delta) {
+            if (day + 1 >= tree.length) grow(day + 1);
+            for (int i = day + 1; i < tree.length; i += i & -i) tree[i] += delta;
+            int[] h = hours.computeIfAbsent(day, k -> new int[24]);
+            h[hour] += delta;
+        }
+
+        long prefix(int day) {
+            long sum = 0;
+            for (int i = Math.min(day + 1, tree.length - 1); i > 0; i -= i & -i) sum += tree[i];
+            return sum;
+        }
+
+        long range(int fromDay, int toDay) {
+            return prefix(toDay) - (fromDay > 0 ? prefix(fromDay - 1) : 0);
+        }
+
+        void addHours(int fromDay, int toDay, long[] out) {
+            for (int[] h : hours.subMap(fromDay, true, toDay, true).values()) {
+                for (int i = 0; i < 24; i++) out[i] += h[i];
+            }
+        }
+
+        private void grow(int minSize) {
+            int size = tree.length;
+            while (size <= minSize) size <<= 1;
+            int[] counts = new int[size];
+            for (Map.Entry<Integer, int[]> e : hours.entrySet()) {
+                int total = 0;
+                for (int c : e.getValue()) total += c;
+                counts[e.getKey() + 1] = total;
+            }
+            for (int i = 1; i < size; i++) {
+                int parent = i + (i & -i);
+                if (parent < size) counts[parent] += counts[i];
+            }
+            tree = counts;
+        }
+    }
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        apply(crime, 1);
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        apply(crime, -1);
+    }
+
+    // With no cube and no build streaming, a delta can be dropped: the crime is already stored (or
+    // already gone) in Mongo, and the next build's stream starts after this point.
+    private void apply(CrimeReport crime, int delta) {
+        lock.writeLock().lock();
+        try {
+            if (deferred != null) {
+                deferred.add(new Delta(crime, delta));
+            } else if (cube != null) {
+                add(cube, crime, delta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean add(Map<String, Map<String, Series>> target, CrimeReport crime, int delta) {
+        String district = crime.getDistrict() != null ? crime.getDistrict() : CrimeReportService.resolveDistrict(crime);
+        String type = CrimeTypeUtil.normalize(crime.getType());
+        if (district == null || type == null || crime.getTime() == null) return false;
+        int day = (int) ChronoUnit.DAYS.between(epoch, crime.getTime().toLocalDate());
+        if (day < 0) return false;
+        target.computeIfAbsent(district, k -> new HashMap<>())
+              .computeIfAbsent(type, k -> new Series())
+              .add(day, crime.getTime().getHour(), delta);
+        return true;
+    }
+
+    /** Rebuilds on the calling thread, for callers that wrote crimes without going through the listeners. */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        while (!build()) {
+            // Superseded by a newer rebuild while streaming; go again.
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestBuild() {
+        if (!building.compareAndSet(false, true)) return;
+        builder.execute(() -> {
+            try {
+                while (!isBuilt() && !build()) {
+                    // Superseded while streaming; go again.
+                }
+            } catch (RuntimeException e) {
+                log.warn("Crime analytics cube build failed: {}", e.getMessage(), e);
+            } finally {
+                building.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return cube != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams every crime into a fresh cube without holding the lock, then swaps it in. Returns false
+     * when another rebuild was requested meanwhile and the result was discarded.
+     */
+    boolean build() {
+        buildLock.lock();
+        try {
+            return buildOnce();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private boolean buildOnce() {
+        int startedAt;
+        lock.writeLock().lock();
+        try {
+            startedAt = generation;
+            deferred = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Map<String, Series>> built = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        boolean streamed = false;
+        try {
+            Query query = new Query();
+            query.fields().include("location").include("type").include("time").include("district");
+            try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+                crimes.forEach(crime -> {
+                    if (add(built, crime, 1) && crime.getId() != null) seen.add(crime.getId());
+                });
+            }
+            streamed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Delta> pending = deferred;
+                deferred = null;
+                // On failure the deferred deltas go too: the next build streams them from Mongo.
+                if (streamed && startedAt == generation) {
+                    replay(built, pending, seen);
+                    cube = built;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return startedAt == generation;
+    }
+
+    // A crime the stream saw must not be added again and one it never saw must not be subtracted;
+    // tracking presence per id also drops a crime that was added and removed during the build.
+    private void replay(Map<String, Map<String, Series>> target, List<Delta> pending, Set<String> seen) {
+        Map<String, Boolean> present = new HashMap<>();
+        Map<String, CrimeReport> added = new LinkedHashMap<>();
+        List<CrimeReport> removed = new ArrayList<>();
+        for (Delta d : pending) {
+            String id = d.crime().getId();
+            if (id == null) continue;
+            boolean in = present.computeIfAbsent(id, seen::contains);
+            if (d.sign() > 0 && !in) {
+                added.put(id, d.crime());
+                present.put(id, true);
+            } else if (d.sign() < 0 && in) {
+                if (added.remove(id) == null) removed.add(d.crime());
+                present.put(id, false);
+            }
+        }
+        added.values().forEach(crime -> add(target, crime, 1));
+        removed.forEach(crime -> add(target, crime, -1));
+    }
+
+    public Map<String, Object> query(LocalDate from, LocalDate to, String district, String type, boolean hourly) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("'from' must not be after 'to'");
+        lock.readLock().lock();
+        try {
+            if (cube == null) {
+                requestBuild();
+                throw new NotReadyException("Crime analytics are still being built");
+            }
+            int fromDay = (int) Math.max(0, ChronoUnit.DAYS.between(epoch, from));
+            int toDay = (int) ChronoUnit.DAYS.between(epoch, to);
+            String typeKey = CrimeTypeUtil.isFilter(type) ? CrimeTypeUtil.normalize(type) : null;
+
+            Map<String, Long> byDistrict = new HashMap<>();
+            Map<String, Long> byType = new HashMap<>();
+            long[] byHour = new long[24];
+            long total = 0;
+            if (toDay >= fromDay) {
+                for (Map.Entry<String, Map<String, Series>> d : cube.entrySet()) {
+                    if (district != null && !d.getKey().equalsIgnoreCase(district)) continue;
+                    for (Map.Entry<String, Series> t : d.getValue().entrySet()) {
+                        if (typeKey != null && !t.getKey().equals(typeKey)) continue;
+                        long count = t.getValue().range(fromDay, toDay);
+                        if (count == 0) continue;
+                        total += count;
+                        byDistrict.merge(d.getKey(), count, Long::sum);
+                        byType.merge(t.getKey(), count, Long::sum);
+                        if (hourly) t.getValue().addHours(fromDay, toDay, byHour);
+                    }
+                }
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("from", from);
+            result.put("to", to);
+            result.put("total", total);
+            result.put("byDistrict", byDistrict);
+            result.put("byType", byType);
+            if (hourly) {
+                List<Map<String, Object>> hourData = new ArrayList<>();
+                for (int i = 0; i < 24; i++) {
+                    Map<String, Object> h = new HashMap<>();
+                    h.put("hour", String.format("%d:00", i));
+                    h.put("count", byHour[i]);
+                    hourData.add(h);
+                }
+                result.put("byHour", hourData);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-zoom grid of crime counts behind the clustered map. The grid is built from the whole collection
+ * on a background thread; until the first build finishes {@link #getClusters} throws
+ * {@link NotReadyException}, and listener deltas that arrive while a build streams are deferred and
+ * replayed against the crimes the stream actually saw.
+ */
+@Service
+public class CrimeClusterIndex implements CrimeReportListener {
+    private static final Logger log = LoggerFactory.getLogger(CrimeClusterIndex.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${crimes.cluster.max-zoom:14}")
+    private int maxClusterZoom;
+
+    @Value("${crimes.cluster.cell-pixels:64}")
+    private int cellPixels;
+
+    @Value("${crimes.cluster.max-cells:4096}")
+    private int maxCells;
+
+    private static final int TILE_SIZE = 256;
+
+    private volatile List<Map<Long, Cell>> levels;
+    // Guards the cells, deferred and generation. Never held while streaming from Mongo.
+    private final ReentrantLock lock = new ReentrantLock();
+    // One build at a time: a second would replace the first one's deferred list.
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private List<Delta> deferred;
+    private int generation;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "crime-cluster-build");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Delta(CrimeReport crime, int sign) {}
+
+    private static class Sums {
+        int count;
+        double sumLat, sumLng;
+
+        void add(double lat, double lng, int delta) {
+            count += delta;
+            sumLat += delta * lat;
+            sumLng += delta * lng;
+        }
+    }
+
+    // Centroids are kept per type as well, so a filtered cluster sits over the crimes it counts.
+    private static class Cell {
+        final Sums all = new Sums();
+        final Map<String, Sums> byType = new HashMap<>();
+    }
+
+    public static class NotReadyException extends RuntimeException {
+        public NotReadyException(String message) {
+            super(message);
+        }
+    }
+
+    public int getMaxClusterZoom() {
+        return maxClusterZoom;
+    }
+
+    public Map<String, Object> getClusters(Double minLat, Double maxLat, Double minLng, Double maxLng,
+            int zoom, String type) {
+        List<Map<Long, Cell>> index = levels;
+        if (index == null) {
+            requestBuild();
+            throw new NotReadyException("Crime clusters are still being built");
+        }
+        int z = Math.max(0, Math.min(zoom, maxClusterZoom));
+        Map<Long, Cell> level = index.get(z);
+        String typeKey = CrimeTypeUtil.isFilter(type) ? CrimeTypeUtil.normalize(type) : null;
+
+        long x0 = cellX(minLng, z), x1 = cellX(maxLng, z);
+        long y0 = cellY(maxLat, z), y1 = cellY(minLat, z);
+
+        List<Map<String, Object>> clusters = new ArrayList<>();
+        Map<String, Integer> typeCounts = new HashMap<>();
+        int total = 0;
+        lock.lock();
+        try {
+            if ((x1 - x0 + 1) * (y1 - y0 + 1) <= maxCells) {
+                for (long x = x0; x <= x1; x++) {
+                    for (long y = y0; y <= y1; y++) {
+                        Cell cell = level.get(cellKey(x, y));
+                        if (cell != null) total += addCluster(cell, typeKey, clusters, typeCounts);
+                    }
+                }
+            } else {
+                for (Map.Entry<Long, Cell> entry : level.entrySet()) {
+                    long x = entry.getKey() >>> 32;
+                    long y = entry.getKey() & 0xffffffffL;
+                    if (x < x0 || x > x1 || y < y0 || y > y1) continue;
+                    total += addCluster(entry.getValue(), typeKey, clusters, typeCounts);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("clusters", clusters);
+        result.put("typeCounts", typeCounts);
+        result.put("total", total);
+        result.put("zoom", z);
+        return result;
+    }
+
+    private int addCluster(Cell cell, String typeKey, List<Map<String, Object>> clusters,
+            Map<String, Integer> typeCounts) {
+        Sums sums = typeKey == null ? cell.all : cell.byType.get(typeKey);
+        if (sums == null || sums.count <= 0) return 0;
+        String dominantType = typeKey;
+        if (dominantType == null) {
+            int best = -1;
+            for (Map.Entry<String, Sums> e : cell.byType.entrySet()) {
+                if (e.getValue().count > best) {
+                    best = e.getValue().count;
+                    dominantType = e.getKey();
+                }
+                typeCounts.merge(e.getKey(), e.getValue().count, Integer::sum);
+            }
+        } else {
+            typeCounts.merge(typeKey, sums.count, Integer::sum);
+        }
+        Map<String, Object> cluster = new HashMap<>();
+        cluster.put("lat", sums.sumLat / sums.count);
+        cluster.put("lng", sums.sumLng / sums.count);
+        cluster.put("count", sums.count);
+        cluster.put("dominantType", dominantType);
+        clusters.add(cluster);
+        return sums.count;
+    }
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        delta(crime, 1);
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        delta(crime, -1);
+    }
+
+    // With no index and no build streaming, a delta can be dropped: the crime is already stored (or
+    // already gone) in Mongo, and the next build's stream starts after this point.
+    private void delta(CrimeReport crime, int sign) {
+        lock.lock();
+        try {
+            if (deferred != null) {
+                deferred.add(new Delta(crime, sign));
+            } else if (levels != null) {
+                apply(levels, crime, sign);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops the index and rebuilds it in the background. */
+    public void invalidate() {
+        lock.lock();
+        try {
+            generation++;
+            levels = null;
+        } finally {
+            lock.unlock();
+        }
+        requestBuild();
+    }
+
+    /** Rebuilds on the calling thread, for callers that wrote crimes without going through the listeners. */
+    public void rebuild() {
+        lock.lock();
+        try {
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+        while (!build()) {
+            // Invalidated while streaming; the newer generation is built next.
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestBuild() {
+        if (!building.compareAndSet(false, true)) return;
+        builder.execute(() -> {
+            try {
+                while (levels == null && !build()) {
+                    // Invalidated while streaming; go again.
+                }
+            } catch (RuntimeException e) {
+                log.warn("Crime cluster index build failed: {}", e.getMessage(), e);
+            } finally {
+                building.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Streams every crime into a fresh grid without holding the lock, then swaps it in. Returns false
+     * when {@link #invalidate} ran meanwhile and the result was discarded.
+     */
+    boolean build() {
+        buildLock.lock();
+        try {
+            return buildOnce();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private boolean buildOnce() {
+        int startedAt;
+        lock.lock();
+        try {
+            startedAt = generation;
+            deferred = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        List<Map<Long, Cell>> built = new ArrayList<>();
+        for (int z = 0; z <= maxClusterZoom; z++) {
+            built.add(new ConcurrentHashMap<>());
+        }
+        Set<String> seen = new HashSet<>();
+        boolean streamed = false;
+        try {
+            Query query = new Query();
+            query.fields().include("location").include("type");
+            try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+                crimes.forEach(crime -> {
+                    if (apply(built, crime, 1) && crime.getId() != null) seen.add(crime.getId());
+                });
+            }
+            streamed = true;
+        } finally {
+            lock.lock();
+            try {
+                List<Delta> pending = deferred;
+                deferred = null;
+                // On failure the deferred deltas go too: the next build streams them from Mongo.
+                if (streamed && startedAt == generation) {
+                    replay(built, pending, seen);
+                    levels = built;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return startedAt == generation;
+    }
+
+    // A crime the stream saw must not be added again and one it never saw must not be subtracted;
+    // tracking presence per id also drops a crime that was added and removed during the build.
+    private void replay(List<Map<Long, Cell>> index, List<Delta> pending, Set<String> seen) {
+        Map<String, Boolean> present = new HashMap<>();
+        Map<String, CrimeReport> added = new LinkedHashMap<>();
+        List<CrimeReport> removed = new ArrayList<>();
+        for (Delta d : pending) {
+            String id = d.crime().getId();
+            if (id == null) continue;
+            boolean in = present.computeIfAbsent(id, seen::contains);
+            if (d.sign() > 0 && !in) {
+                added.put(id, d.crime());
+                present.put(id, true);
+            } else if (d.sign() < 0 && in) {
+                if (added.remove(id) == null) removed.add(d.crime());
+                present.put(id, false);
+            }
+        }
+        added.values().forEach(crime -> apply(index, crime, 1));
+        removed.forEach(crime -> apply(index, crime, -1));
+    }
+
+    private boolean apply(List<Map<Long, Cell>> index, CrimeReport crime, int delta) {
+        if (crime.getLocation() == null || CrimeTypeUtil.normalize(crime.getType()) == null) return false;
+        double lat = crime.getLocation().getY();
+        double lng = crime.getLocation().getX();
+        String type = CrimeTypeUtil.normalize(crime.getType());
+        for (int z = 0; z < index.size(); z++) {
+            Map<Long, Cell> level = index.get(z);
+            long key = cellKey(cellX(lng, z), cellY(lat, z));
+            Cell cell = level.computeIfAbsent(key, k -> new Cell());
+            cell.all.add(lat, lng, delta);
+            Sums sums = cell.byType.computeIfAbsent(type, k -> new Sums());
+            sums.add(lat, lng, delta);
+            if (sums.count <= 0) cell.byType.remove(type);
+            if (cell.all.count <= 0) level.remove(key);
+        }
+        return true;
+    }
+
+    private long cellsPerSide(int zoom) {
+        return Math.max(1L, ((long) TILE_SIZE << zoom) / cellPixels);
+    }
+
+    private long cellX(double lng, int zoom) {
+        double x = (lng + 180.0) / 360.0;
+        return clamp((long) Math.floor(x * cellsPerSide(zoom)), zoom);
+    }
+
+    private long cellY(double lat, int zoom) {
+        double clamped = Math.max(-85.05112878, Math.min(85.05112878, lat));
+        double rad = Math.toRadians(clamped);
+        double y = (1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2;
+        return clamp((long) Math.floor(y * cellsPerSide(zoom)), zoom);
+    }
+
+    private long clamp(long cell, int zoom) {
+        return Math.max(0, Math.min(cellsPerSide(zoom) - 1, cell));
+    }
+
+    private static long cellKey(long x, long y) {
+        return (x << 32) | y;
+    }
+}
@@ -0,0 +1,9 @@
+package com.nirapodpoint.backend.service;
+
+public enum CrimeDataFormat {
+    NDJSON, CSV;
+
+    public static CrimeDataFormat fromContentType(String contentType) {
+        return contentType != null && contentType.startsWith("text/csv") ? CSV : NDJSON;
+    }
+}
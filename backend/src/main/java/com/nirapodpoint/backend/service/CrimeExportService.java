@@ -0,0 +1,114 @@
+package com.nirapodpoint.backend.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CrimeExportService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${crimes.export.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    private static final String CSV_HEADER = "id,type,lat,lng,time,description,reporter,district";
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    public void export(OutputStream out, CrimeDataFormat format, LocalDate from, LocalDate to, String type,
+            Double minLat, Double maxLat, Double minLng, Double maxLng) throws IOException {
+        Query query = CrimeReportService.crimeFilter(type, minLat, maxLat, minLng, maxLng);
+        if (from != null || to != null) {
+            Criteria time = Criteria.where("time");
+            if (from != null) time.gte(from.atStartOfDay());
+            if (to != null) time.lt(to.plusDays(1).atStartOfDay());
+            query.addCriteria(time);
+        }
+        query.cursorBatchSize(cursorBatchSize);
+
+        try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+            Iterator<CrimeReport> it = crimes.iterator();
+            if (format == CrimeDataFormat.CSV) {
+                writeCsv(it, out);
+            } else {
+                writeNdjson(it, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<CrimeReport> crimes, OutputStream out) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.setRootValueSeparator(null);
+            while (crimes.hasNext()) {
+                CrimeReport crime = crimes.next();
+                json.writeStartObject();
+                json.writeStringField("id", crime.getId());
+                json.writeStringField("type", crime.getType());
+                if (crime.getLocation() != null) {
+                    json.writeNumberField("lat", crime.getLocation().getY());
+                    json.writeNumberField("lng", crime.getLocation().getX());
+                }
+                json.writeStringField("time", crime.getTime() == null ? null : crime.getTime().toString());
+                json.writeStringField("description", crime.getDescription());
+                json.writeStringField("reporter", crime.getReporter());
+                json.writeStringField("district", crime.getDistrict());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<CrimeReport> crimes, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (crimes.hasNext()) {
+            CrimeReport crime = crimes.next();
+            writer.write(csv(crime.getId()));
+            writer.write(',');
+            writer.write(csv(crime.getType()));
+            writer.write(',');
+            writer.write(crime.getLocation() == null ? "" : String.valueOf(crime.getLocation().getY()));
+            writer.write(',');
+            writer.write(crime.getLocation() == null ? "" : String.valueOf(crime.getLocation().getX()));
+            writer.write(',');
+            writer.write(crime.getTime() == null ? "" : crime.getTime().toString());
+            writer.write(',');
+            writer.write(csv(crime.getDescription()));
+            writer.write(',');
+            writer.write(csv(crime.getReporter()));
+            writer.write(',');
+            writer.write(csv(crime.getDistrict()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,257 @@
+package com.nirapodpoint.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class CrimeImportService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private List<CrimeReportListener> listeners;
+
+    @Value("${crimes.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${crimes.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private static final int MAX_CSV_RECORD_CHARS = 1 << 16;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static class ImportResult {
+        long imported;
+        long failed;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void fail(long line, String message, int maxErrors) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("line", line);
+                error.put("error", message);
+                errors.add(error);
+            }
+        }
+    }
+
+    public Map<String, Object> importCrimes(InputStream input, CrimeDataFormat format, String reporter) throws IOException {
+        ImportResult result = new ImportResult();
+        List<CrimeReport> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            Map<String, Integer> header = null;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                long recordLine = lineNumber;
+                if (format == CrimeDataFormat.CSV && quotes(line) % 2 == 1) {
+                    // A quoted field spans lines: read on until its quotes balance. A stray quote stops at
+                    // MAX_CSV_RECORD_CHARS instead of swallowing the rest of the file.
+                    StringBuilder record = new StringBuilder(line);
+                    int quotes = quotes(line);
+                    String next;
+                    while (quotes % 2 == 1 && record.length() < MAX_CSV_RECORD_CHARS && (next = reader.readLine()) != null) {
+                        record.append('\n').append(next);
+                        quotes += quotes(next);
+                        lineNumber++;
+                    }
+                    line = record.toString();
+                }
+                if (line.isBlank()) continue;
+                if (format == CrimeDataFormat.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+                try {
+                    CrimeReport report = format == CrimeDataFormat.CSV ? fromCsv(line, header) : fromJson(line);
+                    report.setId(new ObjectId().toHexString());
+                    report.setReporter(reporter);
+                    report.setDistrict(CrimeReportService.resolveDistrict(report));
+                    batch.add(report);
+                    batchLines.add(recordLine);
+                } catch (IllegalArgumentException | DateTimeParseException | IOException e) {
+                    result.fail(recordLine, e.getMessage(), maxReportedErrors);
+                }
+                if (batch.size() >= batchSize) {
+                    flush(batch, batchLines, result);
+                }
+            }
+        }
+        flush(batch, batchLines, result);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("imported", result.imported);
+        response.put("failed", result.failed);
+        response.put("errors", result.errors);
+        response.put("errorsTruncated", result.failed > result.errors.size());
+        return response;
+    }
+
+    private void flush(List<CrimeReport> batch, List<Long> batchLines, ImportResult result) {
+        if (batch.isEmpty()) return;
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class)
+                .insert(batch)
+                .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                result.fail(batchLines.get(error.getIndex()), error.getMessage(), maxReportedErrors);
+            }
+        }
+        List<CrimeReport> written = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failedIndexes.contains(i)) written.add(batch.get(i));
+        }
+        result.imported += written.size();
+        listeners.forEach(l -> l.onCrimesAdded(written));
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private CrimeReport fromJson(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) throw new IllegalArgumentException("Row is not a JSON object");
+        return build(
+            text(node, "type"),
+            text(node, "lat"),
+            text(node, "lng"),
+            text(node, "time"),
+            text(node, "description")
+        );
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(), i);
+        }
+        for (String required : List.of("type", "lat", "lng", "time")) {
+            if (!header.containsKey(required)) throw new IllegalArgumentException("CSV header is missing column: " + required);
+        }
+        return header;
+    }
+
+    private CrimeReport fromCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        return build(
+            column(values, header, "type"),
+            column(values, header, "lat"),
+            column(values, header, "lng"),
+            column(values, header, "time"),
+            column(values, header, "description")
+        );
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer idx = header.get(name);
+        return idx == null || idx >= values.size() ? null : values.get(idx);
+    }
+
+    // Doubled quotes inside a field count twice, so an odd total means a field is still open.
+    private static int quotes(String text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') quotes++;
+        }
+        return quotes;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        values.add(current.toString());
+        return values;
+    }
+
+    private CrimeReport build(String type, String lat, String lng, String time, String description) {
+        String code = CrimeTypeUtil.normalize(type);
+        if (code == null) throw new IllegalArgumentException("Missing type");
+        if (lat == null || lng == null) throw new IllegalArgumentException("Missing lat/lng");
+        double latValue, lngValue;
+        try {
+            latValue = Double.parseDouble(lat.trim());
+            lngValue = Double.parseDouble(lng.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid lat/lng");
+        }
+        if (latValue < -90 || latValue > 90 || lngValue < -180 || lngValue > 180) {
+            throw new IllegalArgumentException("lat/lng out of range");
+        }
+        if (time == null || time.isBlank()) throw new IllegalArgumentException("Missing time");
+
+        CrimeReport report = new CrimeReport();
+        report.setType(code);
+        report.setLocation(new GeoJsonPoint(lngValue, latValue));
+        report.setTime(parseTime(time.trim()));
+        report.setDescription(description);
+        return report;
+    }
+
+    private static LocalDateTime parseTime(String time) {
+        try {
+            return LocalDateTime.parse(time);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(time).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+
+import java.util.List;
+
+public interface CrimeReportListener {
+    void onCrimeAdded(CrimeReport crime);
+
+    void onCrimeRemoved(CrimeReport crime);
+
+    default void onCrimesAdded(List<CrimeReport> crimes) {
+        crimes.forEach(this::onCrimeAdded);
+    }
+}
@@ -7,17 +7,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
-import org.springframework.data.geo.Box;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 import org.springframework.data.geo.Point;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.stream.Collectors;
-import java.util.Collections;
+import java.util.HashSet;
 
 @Service
 public class CrimeReportService {
@@ -27,8 +26,29 @@ public class CrimeReportService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private CrimeClusterIndex crimeClusterIndex;
+
+    @Autowired
+    private List<CrimeReportListener> listeners;
+
+    @Autowired
+    private CrimeWriteBehindQueue writeBehindQueue;
+
     public CrimeReport createCrimeReport(CrimeReport report) {
-        return crimeReportRepository.save(report);
+        report.setType(CrimeTypeUtil.normalize(report.getType()));
+        report.setDistrict(resolveDistrict(report));
+        if (writeBehindQueue.isEnabled()) {
+            return writeBehindQueue.submit(report);
+        }
+        CrimeReport saved = crimeReportRepository.save(report);
+        listeners.forEach(l -> l.onCrimeAdded(saved));
+        return saved;
+    }
+
+    public static String resolveDistrict(CrimeReport report) {
+        if (report.getLocation() == null) return null;
+        return DistrictUtil.findDistrict(report.getLocation().getY(), report.getLocation().getX());
     }
 
     public List<CrimeReport> getAllCrimeReports() {
@@ -36,225 +56,140 @@ public class CrimeReportService {
     }
 
     public Optional<CrimeReport> getCrimeReportById(String id) {
+        CrimeReport pending = writeBehindQueue.getPending(id);
+        if (pending != null) return Optional.of(pending);
         return crimeReportRepository.findById(id);
     }
 
     public CrimeReport updateCrimeReport(String id, CrimeReport updatedReport) {
         updatedReport.setId(id);
-        return crimeReportRepository.save(updatedReport);
+        updatedReport.setType(CrimeTypeUtil.normalize(updatedReport.getType()));
+        updatedReport.setDistrict(resolveDistrict(updatedReport));
+        // A queued original would otherwise be inserted over the update; its listeners never ran.
+        writeBehindQueue.cancel(id);
+        Optional<CrimeReport> existing = crimeReportRepository.findById(id);
+        CrimeReport saved = crimeReportRepository.save(updatedReport);
+        existing.ifPresent(old -> listeners.forEach(l -> l.onCrimeRemoved(old)));
+        listeners.forEach(l -> l.onCrimeAdded(saved));
+        return saved;
     }
 
     public void deleteCrimeReport(String id) {
+        writeBehindQueue.cancel(id);
+        Optional<CrimeReport> existing = crimeReportRepository.findById(id);
         crimeReportRepository.deleteById(id);
+        existing.ifPresent(old -> listeners.forEach(l -> l.onCrimeRemoved(old)));
+    }
+
+    public void deleteCrimeReportsByReporter(String reporter) {
+        writeBehindQueue.cancelByReporter(reporter);
+        Query query = new Query(Criteria.where("reporter").is(reporter));
+        List<CrimeReport> removed = mongoTemplate.find(query, CrimeReport.class);
+        crimeReportRepository.deleteByReporter(reporter);
+        for (CrimeReport old : removed) {
+            listeners.forEach(l -> l.onCrimeRemoved(old));
+        }
     }
 
-    public List<CrimeReport> getCrimeReports(String type, int page, int size, 
-            Double minLat, Double maxLat, Double minLng, Double maxLng) {
+    static Query crimeFilter(String type, Double minLat, Double maxLat, Double minLng, Double maxLng) {
         Query query = new Query();
-        
-        if (type != null && !type.equals("all")) {
-            query.addCriteria(
-                Criteria.where("type").regex("^" + type + "$", "i")
-            );
+
+        if (CrimeTypeUtil.isFilter(type)) {
+            query.addCriteria(Criteria.where("type").is(CrimeTypeUtil.normalize(type)));
         }
-        
-        
+
         if (minLat != null && maxLat != null && minLng != null && maxLng != null) {
-            Point bottomLeft = new Point(minLng, minLat);
-            Point topRight = new Point(maxLng, maxLat);
-            Box box = new Box(bottomLeft, topRight);
-            
-            query.addCriteria(
-                Criteria.where("location")
-                    .within(box)
-            );
+            query.addCriteria(Criteria.where("location").within(boundsPolygon(minLat, maxLat, minLng, maxLng)));
         }
-        
-        
-        query.skip((long) page * size).limit(size);
-        
-        return mongoTemplate.find(query, CrimeReport.class);
+        return query;
     }
-    
-    public Map<String, Object> getCrimesInBounds(Double minLat, Double maxLat, 
-            Double minLng, Double maxLng, String type) {
-        Query query = new Query();
-        
-        
-        if (type != null && !type.equals("all")) {
-            query.addCriteria(
-                Criteria.where("type").regex("^" + type + "$", "i")
-            );
-        }
-        
-        
-        Point bottomLeft = new Point(minLng, minLat);
-        Point topRight = new Point(maxLng, maxLat);
-        Box box = new Box(bottomLeft, topRight);
-        
-        query.addCriteria(
-            Criteria.where("location").within(box)
+
+    static GeoJsonPolygon boundsPolygon(double minLat, double maxLat, double minLng, double maxLng) {
+        return new GeoJsonPolygon(
+            new Point(minLng, minLat),
+            new Point(maxLng, minLat),
+            new Point(maxLng, maxLat),
+            new Point(minLng, maxLat),
+            new Point(minLng, minLat)
         );
-        
-        
-        List<CrimeReport> crimes = mongoTemplate.find(query, CrimeReport.class);
-        
-        
-        Map<String, Integer> typeCounts = new HashMap<>();
-        for (CrimeReport crime : crimes) {
-            typeCounts.merge(crime.getType().toLowerCase(), 1, Integer::sum);
-        }
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("crimes", crimes);
-        result.put("typeCounts", typeCounts);
-        result.put("total", crimes.size());
-        
-        return result;
     }
 
-    public Map<String, Object> getDistrictStatistics() {
-        List<CrimeReport> allCrimes = crimeReportRepository.findAll();
-        
-        
-        Map<String, DistrictStats> districtStatsMap = new HashMap<>();
-        Map<Integer, Integer> hourlyStats = new HashMap<>();
-        Map<Integer, Integer> dailyStats = new HashMap<>();
-        Map<String, Integer> crimeTypeStats = new HashMap<>();
-        
-        for (CrimeReport crime : allCrimes) {
-            String district = DistrictUtil.findDistrict(
-                crime.getLocation().getY(),  
-                crime.getLocation().getX()   
-            );
-            
-            if (district == null) continue;
-            
-            
-            districtStatsMap.computeIfAbsent(district, k -> new DistrictStats())
-                           .addCrime(crime);
-            
-            
-            if (crime.getTime() != null) {
-                int hour = crime.getTime().getHour();
-                int day = crime.getTime().getDayOfWeek().getValue() % 7; 
-                hourlyStats.merge(hour, 1, Integer::sum);
-                dailyStats.merge(day, 1, Integer::sum);
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("type", "description", "location", "time", "reporter");
+
+    public CrimePage getCrimeReports(String type, int page, int size, 
+            Double minLat, Double maxLat, Double minLng, Double maxLng, String cursor, String fields) {
+        Query query = crimeFilter(type, minLat, maxLat, minLng, maxLng);
+
+        if (fields != null && !fields.isBlank()) {
+            query.fields().include("time");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty() || name.equals("id")) continue;
+                if (!PROJECTABLE_FIELDS.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                query.fields().include(name);
             }
-            
-            
-            String crimeType = crime.getType().toLowerCase();
-            crimeTypeStats.merge(crimeType, 1, Integer::sum);
-        }
-        
-        
-        List<Map.Entry<String, DistrictStats>> statsList = 
-            new ArrayList<>(districtStatsMap.entrySet());
-        statsList.sort((a, b) -> Double.compare(b.getValue().getSeverityScore(), 
-                                               a.getValue().getSeverityScore()));
-        
-        
-        List<Map<String, Object>> dangerousDistricts = new ArrayList<>();
-        List<Map<String, Object>> safestDistricts = new ArrayList<>();
-        
-        
-        for (int i = 0; i < Math.min(5, statsList.size()); i++) {
-            Map.Entry<String, DistrictStats> entry = statsList.get(i);
-            Map<String, Object> districtData = new HashMap<>();
-            districtData.put("district", entry.getKey());
-            districtData.put("crimeCount", entry.getValue().getTotalCrimes());
-            districtData.put("severityScore", entry.getValue().getSeverityScore());
-            districtData.put("mostCommonCrime", entry.getValue().getMostCommonCrimeType());
-            dangerousDistricts.add(districtData);
         }
-        
-        
-        for (int i = Math.max(0, statsList.size() - 5); i < statsList.size(); i++) {
-            Map.Entry<String, DistrictStats> entry = statsList.get(i);
-            Map<String, Object> districtData = new HashMap<>();
-            districtData.put("district", entry.getKey());
-            districtData.put("crimeCount", entry.getValue().getTotalCrimes());
-            districtData.put("severityScore", entry.getValue().getSeverityScore());
-            districtData.put("mostCommonCrime", entry.getValue().getMostCommonCrimeType());
-            safestDistricts.add(districtData);
-        }
-        Collections.reverse(safestDistricts); 
-        
-        
-        List<Map<String, Object>> hourlyData = new ArrayList<>();
-        for (int i = 0; i < 24; i++) {
-            Map<String, Object> hourData = new HashMap<>();
-            hourData.put("hour", String.format("%d:00", i));
-            hourData.put("count", hourlyStats.getOrDefault(i, 0));
-            hourlyData.add(hourData);
-        }
-        
-        
-        String[] dayNames = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        List<Map<String, Object>> dailyData = new ArrayList<>();
-        for (int i = 0; i < 7; i++) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("day", dayNames[i]);
-            dayData.put("count", dailyStats.getOrDefault(i, 0));
-            dailyData.add(dayData);
+
+        query.with(Sort.by(Sort.Direction.DESC, "time").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            // Crimes without a time sort after every dated one in descending order.
+            query.addCriteria(position.time == null
+                ? Criteria.where("time").is(null).and("id").lt(position.id)
+                : new Criteria().orOperator(
+                    Criteria.where("time").lt(position.time),
+                    Criteria.where("time").is(position.time).and("id").lt(position.id),
+                    Criteria.where("time").is(null)
+                ));
+        } else {
+            query.skip((long) page * size);
         }
-    
-        List<Map<String, Object>> typeData = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : crimeTypeStats.entrySet()) {
-            Map<String, Object> typeInfo = new HashMap<>();
-            typeInfo.put("type", entry.getKey());
-            typeInfo.put("count", entry.getValue());
-            typeData.add(typeInfo);
+        query.limit(size);
+
+        CrimePage result = new CrimePage();
+        result.items = mongoTemplate.find(query, CrimeReport.class);
+        if (result.items.size() == size) {
+            CrimeReport last = result.items.get(size - 1);
+            result.nextCursor = KeysetCursor.encode(last.getTime(), last.getId());
         }
-        
-    
-        Map<String, Object> result = new HashMap<>();
-        result.put("dangerousDistricts", dangerousDistricts);
-        result.put("safestDistricts", safestDistricts);
-        result.put("hourlyStats", hourlyData);
-        result.put("dailyStats", dailyData);
-        result.put("crimeTypeStats", typeData);
-        
         return result;
     }
+
+    public static class CrimePage {
+        public List<CrimeReport> items;
+        public String nextCursor;
+    }
     
-    private static class DistrictStats {
-        private int totalCrimes = 0;
-        private Map<String, Integer> crimeTypeCounts = new HashMap<>();
-        private double severityScore = 0.0;
-        
-        public void addCrime(CrimeReport crime) {
-            totalCrimes++;
-            crimeTypeCounts.merge(crime.getType().toLowerCase(), 1, Integer::sum);
-            severityScore += getSeverity(crime.getType());
+    public Map<String, Object> getCrimesInBounds(Double minLat, Double maxLat, 
+            Double minLng, Double maxLng, String type, Integer zoom) {
+        if (zoom != null && zoom <= crimeClusterIndex.getMaxClusterZoom()) {
+            return crimeClusterIndex.getClusters(minLat, maxLat, minLng, maxLng, zoom, type);
         }
+
+        Query query = crimeFilter(type, minLat, maxLat, minLng, maxLng);
         
-        public int getTotalCrimes() {
-            return totalCrimes;
+        List<CrimeReport> crimes = mongoTemplate.find(query, CrimeReport.class);
+        if (writeBehindQueue.isEnabled() && minLat != null && maxLat != null && minLng != null && maxLng != null) {
+            Set<String> seen = new HashSet<>();
+            for (CrimeReport crime : crimes) seen.add(crime.getId());
+            for (CrimeReport crime : writeBehindQueue.pendingWithin(minLat, maxLat, minLng, maxLng, type)) {
+                if (seen.add(crime.getId())) crimes.add(crime);
+            }
         }
         
-        public double getSeverityScore() {
-            return severityScore;
+        Map<String, Integer> typeCounts = new HashMap<>();
+        for (CrimeReport crime : crimes) {
+            typeCounts.merge(crime.getType().toLowerCase(), 1, Integer::sum);
         }
         
-        public String getMostCommonCrimeType() {
-            return crimeTypeCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("unknown");
-        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("crimes", crimes);
+        result.put("typeCounts", typeCounts);
+        result.put("total", crimes.size());
         
-        private double getSeverity(String type) {
-            return switch (type.toLowerCase()) {
-                case "murder" -> 10.0;
-                case "rape" -> 9.0;
-                case "kidnap" -> 8.0;
-                case "assault" -> 7.0;
-                case "robbery" -> 6.0;
-                case "harassment" -> 5.0;
-                case "theft" -> 3.0;
-                default -> 1.0;
-            };
-        }
+        return result;
     }
-} 
\ No newline at end of file
+}
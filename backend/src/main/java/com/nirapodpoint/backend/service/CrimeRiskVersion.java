@@ -0,0 +1,35 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter that moves whenever the crime set changes, so anything derived from crimes can tell
+ * whether it was computed against the current data.
+ */
+@Component
+public class CrimeRiskVersion implements CrimeReportListener {
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onCrimesAdded(List<CrimeReport> crimes) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,29 @@
+package com.nirapodpoint.backend.service;
+
+import java.util.Locale;
+
+public class CrimeTypeUtil {
+    public static String normalize(String type) {
+        if (type == null) return null;
+        String code = type.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s\\-.$]+", "_");
+        return code.isEmpty() ? null : code;
+    }
+
+    public static boolean isFilter(String type) {
+        return type != null && !type.isBlank() && !type.equalsIgnoreCase("all");
+    }
+
+    public static double severity(String type) {
+        if (type == null) return 1.0;
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "murder" -> 10.0;
+            case "rape" -> 9.0;
+            case "kidnap" -> 8.0;
+            case "assault" -> 7.0;
+            case "robbery" -> 6.0;
+            case "harassment" -> 5.0;
+            case "theft" -> 3.0;
+            default -> 1.0;
+        };
+    }
+}
@@ -0,0 +1,517 @@
+package com.nirapodpoint.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.nirapodpoint.backend.model.CrimeReport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Acknowledges crime reports once they are fsynced to a local journal and inserts them into MongoDB
+ * in batches. The journal is a run of segment files, {@code <journal>.000001} and up; a segment is
+ * deleted once it and every older one hold nothing still waiting for MongoDB, so its size tracks the
+ * backlog rather than the uptime. Listeners hear about a report once, when its insert succeeds;
+ * replaying a journal after a crash re-sends rows MongoDB already has, and those are skipped.
+ */
+@Service
+public class CrimeWriteBehindQueue {
+    private static final Logger log = LoggerFactory.getLogger(CrimeWriteBehindQueue.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private List<CrimeReportListener> listeners;
+
+    @Value("${crimes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${crimes.write-behind.journal:data/crime-journal.ndjson}")
+    private String journalPath;
+
+    @Value("${crimes.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${crimes.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${crimes.write-behind.segment-bytes:16777216}")
+    private long segmentBytes;
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkedBlockingQueue<CrimeReport> queue = new LinkedBlockingQueue<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // Locks rather than monitors: a virtual thread blocked in write or force inside synchronized pins its carrier.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Held while a batch is inserted, so a cancel lands either before the insert or after it.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Oldest first, the active segment last; guarded by appendLock.
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private Segment active;
+    private long nextSegment = 1;
+    private long appendedSeq = 0;
+    private volatile long durableSeq = 0;
+    private volatile boolean running = false;
+    private Thread flusher;
+
+    private record Pending(CrimeReport report, Segment segment) {}
+
+    private static final class Segment {
+        final Path path;
+        FileChannel channel;
+        long bytes;
+        // Reports in this segment not yet inserted or cancelled.
+        int outstanding;
+
+        Segment(Path path) {
+            this.path = path;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) return;
+        Path base = Path.of(journalPath).toAbsolutePath();
+        Files.createDirectories(base.getParent());
+        Map<String, Pending> replayed = new LinkedHashMap<>();
+        for (Path file : segmentFiles(base)) {
+            Segment segment = new Segment(file);
+            segments.add(segment);
+            replay(segment, replayed);
+            nextSegment = segmentNumber(file) + 1;
+        }
+        pending.putAll(replayed);
+        replayed.values().forEach(p -> queue.add(p.report()));
+        appendLock.lock();
+        try {
+            openSegment();
+            dropFlushedSegments();
+        } finally {
+            appendLock.unlock();
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "crime-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private List<Path> segmentFiles(Path base) throws IOException {
+        String prefix = base.getFileName() + ".";
+        try (Stream<Path> files = Files.list(base.getParent())) {
+            return files
+                .filter(p -> p.getFileName().toString().startsWith(prefix)
+                    && p.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                .sorted(Comparator.comparingLong(CrimeWriteBehindQueue::segmentNumber))
+                .toList();
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private void replay(Segment segment, Map<String, Pending> replayed) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segment.path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    Pending previous;
+                    if ("remove".equals(node.path("op").asText())) {
+                        previous = replayed.remove(node.get("id").asText());
+                    } else {
+                        CrimeReport report = fromJournal(node);
+                        previous = replayed.put(report.getId(), new Pending(report, segment));
+                        segment.outstanding++;
+                    }
+                    if (previous != null) previous.segment().outstanding--;
+                } catch (IOException | RuntimeException e) {
+                    // a torn final line from a crash is expected; anything before it was fsynced
+                }
+            }
+        }
+    }
+
+    public CrimeReport submit(CrimeReport report) {
+        if (report.getId() == null) report.setId(new ObjectId().toHexString());
+        byte[] line = line(toJournal(report));
+        long seq;
+        appendLock.lock();
+        try {
+            seq = append(line);
+            active.outstanding++;
+            pending.put(report.getId(), new Pending(report, active));
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException syncFailed) {
+            // The journal can't vouch for this report surviving a crash, so write it straight through.
+            List<CrimeReport> failed;
+            try {
+                failed = flush(List.of(report));
+            } catch (RuntimeException e) {
+                failed = List.of(report);
+            }
+            if (!failed.isEmpty()) {
+                discard(report.getId());
+                throw syncFailed;
+            }
+            return report;
+        }
+        queue.add(report);
+        return report;
+    }
+
+    /**
+     * Takes a report that has not reached MongoDB out of the queue, with a tombstone in the journal so
+     * a replay doesn't bring it back. Call before deleting or replacing a report, so the flush can't
+     * undo the change. Returns the report if it was still pending, otherwise null.
+     */
+    public CrimeReport cancel(String id) {
+        if (!enabled) return null;
+        flushLock.lock();
+        try {
+            Pending entry = pending.get(id);
+            if (entry == null) return null;
+            long seq;
+            appendLock.lock();
+            try {
+                seq = append(line(tombstone(id)));
+                pending.remove(id, entry);
+                release(entry.segment());
+            } finally {
+                appendLock.unlock();
+            }
+            awaitDurable(seq);
+            return entry.report();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public List<CrimeReport> cancelByReporter(String reporter) {
+        List<CrimeReport> cancelled = new ArrayList<>();
+        if (!enabled) return cancelled;
+        for (Pending entry : pending.values()) {
+            if (Objects.equals(reporter, entry.report().getReporter())) {
+                CrimeReport report = cancel(entry.report().getId());
+                if (report != null) cancelled.add(report);
+            }
+        }
+        return cancelled;
+    }
+
+    // Drops a report whose submit failed; the tombstone is best effort since the journal just failed.
+    private void discard(String id) {
+        appendLock.lock();
+        try {
+            Pending entry = pending.remove(id);
+            if (entry == null) return;
+            release(entry.segment());
+            try {
+                append(line(tombstone(id)));
+            } catch (RuntimeException e) {
+                log.warn("Could not write a tombstone for failed crime report {}", id, e);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void awaitDurable(long seq) {
+        if (durableSeq >= seq) return;
+        syncLock.lock();
+        try {
+            if (durableSeq >= seq) return;
+            long target;
+            FileChannel channel;
+            appendLock.lock();
+            try {
+                target = appendedSeq;
+                channel = active.channel;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to sync crime journal: " + e.getMessage(), e);
+            }
+            durableSeq = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public CrimeReport getPending(String id) {
+        Pending entry = pending.get(id);
+        return entry == null ? null : entry.report();
+    }
+
+    public List<CrimeReport> pendingWithin(double minLat, double maxLat, double minLng, double maxLng, String type) {
+        String typeKey = CrimeTypeUtil.isFilter(type) ? CrimeTypeUtil.normalize(type) : null;
+        List<CrimeReport> result = new ArrayList<>();
+        for (Pending entry : pending.values()) {
+            CrimeReport crime = entry.report();
+            if (crime.getLocation() == null) continue;
+            double lat = crime.getLocation().getY(), lng = crime.getLocation().getX();
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) continue;
+            if (typeKey != null && !typeKey.equals(crime.getType())) continue;
+            result.add(crime);
+        }
+        return result;
+    }
+
+    private void flushLoop() {
+        List<CrimeReport> batch = new ArrayList<>(batchSize);
+        long backoffMs = flushIntervalMs;
+        while (running || !queue.isEmpty()) {
+            try {
+                CrimeReport first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                List<CrimeReport> failed;
+                try {
+                    failed = flush(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Crime write-behind flush of {} reports failed, retrying", batch.size(), e);
+                    failed = new ArrayList<>(batch);
+                }
+                batch.clear();
+                if (failed.isEmpty()) {
+                    backoffMs = flushIntervalMs;
+                    continue;
+                }
+                queue.addAll(failed);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Inserts the reports of the batch that are still pending and tells the listeners about the ones
+     * that were new. Rows rejected for anything but a duplicate id stay pending and are returned for
+     * a retry; a failed listener is logged and does not undo or repeat the insert.
+     */
+    List<CrimeReport> flush(List<CrimeReport> batch) {
+        List<CrimeReport> inserted = new ArrayList<>();
+        List<CrimeReport> failed = new ArrayList<>();
+        flushLock.lock();
+        try {
+            List<CrimeReport> live = new ArrayList<>(batch.size());
+            for (CrimeReport report : batch) {
+                Pending entry = pending.get(report.getId());
+                if (entry != null && entry.report() == report) live.add(report);
+            }
+            if (live.isEmpty()) return failed;
+            Set<Integer> duplicates = new HashSet<>();
+            Set<Integer> rejected = new HashSet<>();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class)
+                    .insert(live)
+                    .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    (error.getCode() == DUPLICATE_KEY ? duplicates : rejected).add(error.getIndex());
+                }
+            }
+            appendLock.lock();
+            try {
+                for (int i = 0; i < live.size(); i++) {
+                    CrimeReport report = live.get(i);
+                    if (rejected.contains(i)) {
+                        failed.add(report);
+                        continue;
+                    }
+                    Pending entry = pending.remove(report.getId());
+                    if (entry != null) release(entry.segment());
+                    // A duplicate was inserted before a crash or a retry and its listeners already ran.
+                    if (!duplicates.contains(i)) inserted.add(report);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        notifyListeners(inserted);
+        return failed;
+    }
+
+    private void notifyListeners(List<CrimeReport> inserted) {
+        if (inserted.isEmpty()) return;
+        for (CrimeReportListener listener : listeners) {
+            try {
+                listener.onCrimesAdded(inserted);
+            } catch (RuntimeException e) {
+                log.warn("{} failed on {} new crime reports", listener.getClass().getSimpleName(), inserted.size(), e);
+            }
+        }
+    }
+
+    // Callers hold appendLock.
+    private long append(byte[] line) {
+        try {
+            if (active.bytes >= segmentBytes) rotate();
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) active.channel.write(buffer);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to crime journal: " + e.getMessage(), e);
+        }
+        active.bytes += line.length;
+        return ++appendedSeq;
+    }
+
+    private void rotate() throws IOException {
+        // Reports still in awaitDurable may be in the old segment, and the next force only covers the new one.
+        active.channel.force(false);
+        openSegment();
+        dropFlushedSegments();
+    }
+
+    private void openSegment() throws IOException {
+        Path base = Path.of(journalPath).toAbsolutePath();
+        Segment segment = new Segment(base.resolveSibling(String.format("%s.%06d", base.getFileName(), nextSegment++)));
+        segment.channel = FileChannel.open(segment.path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment.bytes = segment.channel.size();
+        segments.addLast(segment);
+        active = segment;
+    }
+
+    private void release(Segment segment) {
+        segment.outstanding--;
+        dropFlushedSegments();
+    }
+
+    /**
+     * Deletes segments from the oldest while nothing in them is outstanding. Going strictly in order
+     * keeps a tombstone's segment until the segment with the report it cancels is gone.
+     */
+    private void dropFlushedSegments() {
+        while (segments.size() > 1 && segments.peekFirst().outstanding == 0) {
+            Segment oldest = segments.pollFirst();
+            try {
+                if (oldest.channel != null) oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("Could not delete crime journal segment {}", oldest.path, e);
+            }
+        }
+        if (segments.size() == 1 && active.outstanding == 0 && active.bytes > 0) {
+            try {
+                active.channel.truncate(0);
+                active.bytes = 0;
+            } catch (IOException e) {
+                log.warn("Could not truncate crime journal segment {}", active.path, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) return;
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                if (segment.channel != null) segment.channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private byte[] line(Map<String, Object> entry) {
+        try {
+            return (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize crime report: " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> tombstone(String id) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("op", "remove");
+        entry.put("id", id);
+        return entry;
+    }
+
+    private Map<String, Object> toJournal(CrimeReport report) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", report.getId());
+        entry.put("type", report.getType());
+        entry.put("lat", report.getLocation() == null ? null : report.getLocation().getY());
+        entry.put("lng", report.getLocation() == null ? null : report.getLocation().getX());
+        entry.put("time", report.getTime() == null ? null : report.getTime().toString());
+        entry.put("description", report.getDescription());
+        entry.put("reporter", report.getReporter());
+        entry.put("district", report.getDistrict());
+        return entry;
+    }
+
+    private CrimeReport fromJournal(JsonNode node) {
+        CrimeReport report = new CrimeReport();
+        report.setId(node.get("id").asText());
+        report.setType(node.path("type").asText(null));
+        if (node.hasNonNull("lat") && node.hasNonNull("lng")) {
+            report.setLocation(new GeoJsonPoint(node.get("lng").asDouble(), node.get("lat").asDouble()));
+        }
+        if (node.hasNonNull("time")) report.setTime(LocalDateTime.parse(node.get("time").asText()));
+        report.setDescription(node.path("description").asText(null));
+        report.setReporter(node.path("reporter").asText(null));
+        report.setDistrict(node.path("district").asText(null));
+        return report;
+    }
+}
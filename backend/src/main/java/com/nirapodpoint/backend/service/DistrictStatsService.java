@@ -0,0 +1,275 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.DistrictCrimeStats;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Service
+public class DistrictStatsService implements CrimeReportListener {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static final String[] DAY_NAMES = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+
+    private static final String REBUILD_COLLECTION = "district_crime_stats_rebuild";
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Deltas hold the read lock while they apply; a rebuild takes the write lock only to start deferring
+    // them and to swap its result in.
+    private final ReentrantReadWriteLock deltaLock = new ReentrantReadWriteLock();
+    private ConcurrentLinkedQueue<Delta> deferred;
+
+    private record Delta(CrimeReport crime, int sign) {}
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        delta(List.of(crime), 1);
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        delta(List.of(crime), -1);
+    }
+
+    @Override
+    public void onCrimesAdded(List<CrimeReport> crimes) {
+        delta(crimes, 1);
+    }
+
+    private void delta(List<CrimeReport> crimes, int sign) {
+        deltaLock.readLock().lock();
+        try {
+            if (deferred != null) {
+                crimes.forEach(crime -> deferred.add(new Delta(crime, sign)));
+                return;
+            }
+            applyDeltas(crimes, sign);
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    private void applyDeltas(List<CrimeReport> crimes, int sign) {
+        Map<String, Map<String, Number>> deltas = new HashMap<>();
+        for (CrimeReport crime : crimes) {
+            String district = districtOf(crime);
+            String type = CrimeTypeUtil.normalize(crime.getType());
+            if (district == null || type == null) continue;
+            Map<String, Number> inc = deltas.computeIfAbsent(district, k -> new HashMap<>());
+            inc.merge("totalCrimes", (long) sign, (a, b) -> a.longValue() + b.longValue());
+            inc.merge("severityScore", sign * CrimeTypeUtil.severity(type), (a, b) -> a.doubleValue() + b.doubleValue());
+            inc.merge("typeCounts." + type, (long) sign, (a, b) -> a.longValue() + b.longValue());
+            if (crime.getTime() != null) {
+                inc.merge("hourly." + crime.getTime().getHour(), (long) sign, (a, b) -> a.longValue() + b.longValue());
+                inc.merge("daily." + crime.getTime().getDayOfWeek().getValue() % 7, (long) sign, (a, b) -> a.longValue() + b.longValue());
+            }
+        }
+        if (deltas.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DistrictCrimeStats.class);
+        for (Map.Entry<String, Map<String, Number>> entry : deltas.entrySet()) {
+            Update update = new Update();
+            entry.getValue().forEach(update::inc);
+            bulk.upsert(new Query(Criteria.where("_id").is(entry.getKey())), update);
+        }
+        bulk.execute();
+    }
+
+    private String districtOf(CrimeReport crime) {
+        if (crime.getDistrict() != null) return crime.getDistrict();
+        return CrimeReportService.resolveDistrict(crime);
+    }
+
+    /**
+     * Recomputes the statistics into a side collection and renames it over the live one. Deltas that
+     * arrive meanwhile are deferred and replayed against the crimes the stream actually counted.
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            deltaLock.writeLock().lock();
+            try {
+                deferred = new ConcurrentLinkedQueue<>();
+            } finally {
+                deltaLock.writeLock().unlock();
+            }
+
+            Map<String, DistrictCrimeStats> stats = new HashMap<>();
+            Set<String> counted = new HashSet<>();
+            boolean built = false;
+            List<Delta> pending;
+            try {
+                Query query = new Query();
+                query.fields().include("location").include("type").include("time").include("district");
+                try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+                    crimes.forEach(crime -> {
+                        if (accumulate(stats, crime) && crime.getId() != null) counted.add(crime.getId());
+                    });
+                }
+                mongoTemplate.dropCollection(REBUILD_COLLECTION);
+                if (!stats.isEmpty()) mongoTemplate.insert(stats.values(), REBUILD_COLLECTION);
+                built = true;
+            } finally {
+                deltaLock.writeLock().lock();
+                try {
+                    if (built) swapIn(!stats.isEmpty());
+                    pending = new ArrayList<>(deferred);
+                    deferred = null;
+                } finally {
+                    deltaLock.writeLock().unlock();
+                }
+                if (built) replay(pending, counted);
+                else pending.forEach(d -> applyDeltas(List.of(d.crime()), d.sign()));
+            }
+            return stats.size();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean accumulate(Map<String, DistrictCrimeStats> stats, CrimeReport crime) {
+        String district = districtOf(crime);
+        String type = CrimeTypeUtil.normalize(crime.getType());
+        if (district == null || type == null) return false;
+        DistrictCrimeStats s = stats.computeIfAbsent(district, k -> {
+            DistrictCrimeStats created = new DistrictCrimeStats();
+            created.setDistrict(k);
+            return created;
+        });
+        s.setTotalCrimes(s.getTotalCrimes() + 1);
+        s.setSeverityScore(s.getSeverityScore() + CrimeTypeUtil.severity(type));
+        s.getTypeCounts().merge(type, 1L, Long::sum);
+        if (crime.getTime() != null) {
+            s.getHourly().merge(String.valueOf(crime.getTime().getHour()), 1L, Long::sum);
+            s.getDaily().merge(String.valueOf(crime.getTime().getDayOfWeek().getValue() % 7), 1L, Long::sum);
+        }
+        return true;
+    }
+
+    private void swapIn(boolean hasStats) {
+        if (!hasStats) {
+            mongoTemplate.remove(new Query(), DistrictCrimeStats.class);
+            return;
+        }
+        String target = mongoTemplate.getCollectionName(DistrictCrimeStats.class);
+        mongoTemplate.getCollection(REBUILD_COLLECTION).renameCollection(
+            new MongoNamespace(mongoTemplate.getDb().getName(), target),
+            new RenameCollectionOptions().dropTarget(true));
+    }
+
+    // A crime the stream counted must not be added again and one it never saw must not be subtracted;
+    // tracking presence per id also drops a crime that was added and removed during the rebuild.
+    private void replay(List<Delta> pending, Set<String> counted) {
+        Map<String, Boolean> present = new HashMap<>();
+        Map<String, CrimeReport> added = new LinkedHashMap<>();
+        List<CrimeReport> removed = new ArrayList<>();
+        for (Delta d : pending) {
+            String id = d.crime().getId();
+            if (id == null) continue;
+            boolean in = present.computeIfAbsent(id, counted::contains);
+            if (d.sign() > 0 && !in) {
+                added.put(id, d.crime());
+                present.put(id, true);
+            } else if (d.sign() < 0 && in) {
+                if (added.remove(id) == null) removed.add(d.crime());
+                present.put(id, false);
+            }
+        }
+        applyDeltas(new ArrayList<>(added.values()), 1);
+        applyDeltas(removed, -1);
+    }
+
+    public Map<String, Object> getDistrictStatistics() {
+        List<DistrictCrimeStats> statsList = mongoTemplate.findAll(DistrictCrimeStats.class);
+        statsList.removeIf(s -> s.getTotalCrimes() <= 0);
+
+        long[] hourlyStats = new long[24];
+        long[] dailyStats = new long[7];
+        Map<String, Long> crimeTypeStats = new HashMap<>();
+        for (DistrictCrimeStats s : statsList) {
+            s.getHourly().forEach((hour, count) -> hourlyStats[Integer.parseInt(hour)] += count);
+            s.getDaily().forEach((day, count) -> dailyStats[Integer.parseInt(day)] += count);
+            s.getTypeCounts().forEach((type, count) -> crimeTypeStats.merge(type, count, Long::sum));
+        }
+
+        statsList.sort((a, b) -> Double.compare(b.getSeverityScore(), a.getSeverityScore()));
+
+        List<Map<String, Object>> dangerousDistricts = new ArrayList<>();
+        for (int i = 0; i < Math.min(5, statsList.size()); i++) {
+            dangerousDistricts.add(toDistrictData(statsList.get(i)));
+        }
+
+        List<Map<String, Object>> safestDistricts = new ArrayList<>();
+        for (int i = Math.max(0, statsList.size() - 5); i < statsList.size(); i++) {
+            safestDistricts.add(toDistrictData(statsList.get(i)));
+        }
+        Collections.reverse(safestDistricts);
+
+        List<Map<String, Object>> hourlyData = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            Map<String, Object> hourData = new HashMap<>();
+            hourData.put("hour", String.format("%d:00", i));
+            hourData.put("count", hourlyStats[i]);
+            hourlyData.add(hourData);
+        }
+
+        List<Map<String, Object>> dailyData = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("day", DAY_NAMES[i]);
+            dayData.put("count", dailyStats[i]);
+            dailyData.add(dayData);
+        }
+
+        List<Map<String, Object>> typeData = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : crimeTypeStats.entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            Map<String, Object> typeInfo = new HashMap<>();
+            typeInfo.put("type", entry.getKey());
+            typeInfo.put("count", entry.getValue());
+            typeData.add(typeInfo);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dangerousDistricts", dangerousDistricts);
+        result.put("safestDistricts", safestDistricts);
+        result.put("hourlyStats", hourlyData);
+        result.put("dailyStats", dailyData);
+        result.put("crimeTypeStats", typeData);
+        return result;
+    }
+
+    private Map<String, Object> toDistrictData(DistrictCrimeStats stats) {
+        String mostCommonCrime = stats.getTypeCounts().entrySet().stream()
+            .filter(e -> e.getValue() > 0)
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse("unknown");
+        Map<String, Object> districtData = new HashMap<>();
+        districtData.put("district", stats.getDistrict());
+        districtData.put("crimeCount", stats.getTotalCrimes());
+        districtData.put("severityScore", stats.getSeverityScore());
+        districtData.put("mostCommonCrime", mostCommonCrime);
+        return districtData;
+    }
+}
@@ -1,5 +1,12 @@
 package com.nirapodpoint.backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 public class DistrictUtil {
@@ -84,10 +91,204 @@ public class DistrictUtil {
         new District("Thakurgaon", 25.80, 88.20, 26.30, 88.60)
     );
 
-    public static String findDistrict(double lat, double lng) {
+    private static final String BOUNDARY_RESOURCE = "districts/bd_districts.geojson";
+    private static final String[] NAME_PROPERTIES = {"name", "district", "ADM2_EN", "NAME_2"};
+    private static final double CELL_DEGREES = 0.05;
+
+    static class Region {
+        final String name;
+        final List<List<double[][]>> polygons;
+        final double minLat, minLng, maxLat, maxLng;
+        Region(String name, List<List<double[][]>> polygons) {
+            this.name = name;
+            this.polygons = polygons;
+            double minLat = Double.MAX_VALUE, minLng = Double.MAX_VALUE;
+            double maxLat = -Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+            for (List<double[][]> polygon : polygons) {
+                for (double[] p : polygon.get(0)) {
+                    minLat = Math.min(minLat, p[0]);
+                    maxLat = Math.max(maxLat, p[0]);
+                    minLng = Math.min(minLng, p[1]);
+                    maxLng = Math.max(maxLng, p[1]);
+                }
+            }
+            this.minLat = minLat;
+            this.minLng = minLng;
+            this.maxLat = maxLat;
+            this.maxLng = maxLng;
+        }
+        boolean contains(double lat, double lng) {
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) return false;
+            for (List<double[][]> polygon : polygons) {
+                if (!inRing(polygon.get(0), lat, lng)) continue;
+                boolean inHole = false;
+                for (int i = 1; i < polygon.size() && !inHole; i++) {
+                    inHole = inRing(polygon.get(i), lat, lng);
+                }
+                if (!inHole) return true;
+            }
+            return false;
+        }
+        double centrality(double lat, double lng) {
+            double halfLat = (maxLat - minLat) / 2, halfLng = (maxLng - minLng) / 2;
+            return Math.max(Math.abs(lat - (minLat + halfLat)) / halfLat, Math.abs(lng - (minLng + halfLng)) / halfLng);
+        }
+    }
+
+    private static boolean inRing(double[][] ring, double lat, double lng) {
+        boolean inside = false;
+        for (int i = 0, j = ring.length - 1; i < ring.length; j = i++) {
+            double latI = ring[i][0], lngI = ring[i][1];
+            double latJ = ring[j][0], lngJ = ring[j][1];
+            if ((latI > lat) != (latJ > lat)
+                    && lng < (lngJ - lngI) * (lat - latI) / (latJ - latI) + lngI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    // "boxes" while only the bounding boxes above are available, otherwise a digest of the shipped
+    // boundary file; CrimeDistrictMigration recomputes stored districts whenever this changes.
+    public static final String BOUNDARY_VERSION;
+    private static final List<Region> REGIONS;
+    private static final double GRID_MIN_LAT, GRID_MIN_LNG;
+    private static final int GRID_ROWS, GRID_COLS;
+    private static final int[][] GRID;
+
+    static {
+        byte[] boundaries = readBoundaries();
+        List<Region> parsed = List.of();
+        if (boundaries != null) {
+            try {
+                parsed = parseBoundaries(new ObjectMapper().readTree(boundaries));
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load district boundaries: " + e.getMessage(), e);
+            }
+        }
+        if (parsed.isEmpty()) {
+            REGIONS = boxRegions();
+            BOUNDARY_VERSION = "boxes";
+        } else {
+            REGIONS = parsed;
+            BOUNDARY_VERSION = "geojson:" + digest(boundaries);
+        }
+        double minLat = Double.MAX_VALUE, minLng = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (Region r : REGIONS) {
+            minLat = Math.min(minLat, r.minLat);
+            minLng = Math.min(minLng, r.minLng);
+            maxLat = Math.max(maxLat, r.maxLat);
+            maxLng = Math.max(maxLng, r.maxLng);
+        }
+        GRID_MIN_LAT = minLat;
+        GRID_MIN_LNG = minLng;
+        GRID_ROWS = (int) Math.ceil((maxLat - minLat) / CELL_DEGREES) + 1;
+        GRID_COLS = (int) Math.ceil((maxLng - minLng) / CELL_DEGREES) + 1;
+        List<List<Integer>> cells = new ArrayList<>();
+        for (int i = 0; i < GRID_ROWS * GRID_COLS; i++) cells.add(new ArrayList<>());
+        for (int idx = 0; idx < REGIONS.size(); idx++) {
+            Region r = REGIONS.get(idx);
+            for (int row = row(r.minLat); row <= row(r.maxLat); row++) {
+                for (int col = col(r.minLng); col <= col(r.maxLng); col++) {
+                    cells.get(row * GRID_COLS + col).add(idx);
+                }
+            }
+        }
+        GRID = new int[cells.size()][];
+        for (int i = 0; i < cells.size(); i++) {
+            GRID[i] = cells.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat - GRID_MIN_LAT) / CELL_DEGREES);
+    }
+
+    private static int col(double lng) {
+        return (int) Math.floor((lng - GRID_MIN_LNG) / CELL_DEGREES);
+    }
+
+    private static byte[] readBoundaries() {
+        ClassPathResource resource = new ClassPathResource(BOUNDARY_RESOURCE);
+        if (!resource.exists()) return null;
+        try (InputStream is = resource.getInputStream()) {
+            return is.readAllBytes();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load district boundaries: " + e.getMessage(), e);
+        }
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Region> boxRegions() {
+        List<Region> regions = new ArrayList<>();
         for (District d : DISTRICTS) {
-            if (d.contains(lat, lng)) return d.name;
+            double[][] ring = {
+                {d.minLat, d.minLng}, {d.minLat, d.maxLng}, {d.maxLat, d.maxLng}, {d.maxLat, d.minLng}, {d.minLat, d.minLng}
+            };
+            regions.add(new Region(d.name, List.of(List.<double[][]>of(ring))));
+        }
+        return regions;
+    }
+
+    static List<Region> parseBoundaries(JsonNode root) {
+        List<Region> regions = new ArrayList<>();
+        for (JsonNode feature : root.path("features")) {
+            String name = null;
+            for (String property : NAME_PROPERTIES) {
+                JsonNode value = feature.path("properties").get(property);
+                if (value != null && value.isTextual()) {
+                    name = value.asText();
+                    break;
+                }
+            }
+            JsonNode geometry = feature.path("geometry");
+            List<List<double[][]>> polygons = new ArrayList<>();
+            switch (geometry.path("type").asText()) {
+                case "Polygon" -> polygons.add(parsePolygon(geometry.get("coordinates")));
+                case "MultiPolygon" -> {
+                    for (JsonNode polygon : geometry.get("coordinates")) polygons.add(parsePolygon(polygon));
+                }
+                default -> { }
+            }
+            if (name != null && !polygons.isEmpty()) regions.add(new Region(name, polygons));
+        }
+        return regions;
+    }
+
+    private static List<double[][]> parsePolygon(JsonNode rings) {
+        List<double[][]> polygon = new ArrayList<>();
+        for (JsonNode ring : rings) {
+            double[][] points = new double[ring.size()][];
+            for (int i = 0; i < ring.size(); i++) {
+                points[i] = new double[]{ring.get(i).get(1).asDouble(), ring.get(i).get(0).asDouble()};
+            }
+            polygon.add(points);
+        }
+        return polygon;
+    }
+
+    public static String findDistrict(double lat, double lng) {
+        int row = row(lat), col = col(lng);
+        if (row < 0 || row >= GRID_ROWS || col < 0 || col >= GRID_COLS) return null;
+        Region best = null;
+        double bestCentrality = Double.MAX_VALUE;
+        for (int idx : GRID[row * GRID_COLS + col]) {
+            Region r = REGIONS.get(idx);
+            if (!r.contains(lat, lng)) continue;
+            double centrality = r.centrality(lat, lng);
+            if (centrality < bestCentrality) {
+                bestCentrality = centrality;
+                best = r;
+            }
         }
-        return null;
+        return best == null ? null : best.name;
     }
-} 
\ No newline at end of file
+}
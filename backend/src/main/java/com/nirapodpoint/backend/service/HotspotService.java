@@ -0,0 +1,278 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Service
+public class HotspotService implements CrimeReportListener {
+    private static final Logger log = LoggerFactory.getLogger(HotspotService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${crimes.hotspots.window-days:30}")
+    private int windowDays;
+
+    @Value("${crimes.hotspots.eps-meters:300}")
+    private double epsMeters;
+
+    @Value("${crimes.hotspots.min-points:5}")
+    private int minPoints;
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    private final Map<String, CrimePoint> points = new ConcurrentHashMap<>();
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // Removals seen before the initial load finished, applied once it has, so a crime deleted while the
+    // load was streaming does not come back.
+    private final Set<String> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded = false;
+    private volatile boolean dirty = true;
+    private volatile List<Map<String, Object>> hotspots = Collections.emptyList();
+    private volatile LocalDateTime computedAt;
+
+    record CrimePoint(double lat, double lng, String type, LocalDateTime time) {}
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        if (crime.getId() == null || crime.getLocation() == null || crime.getTime() == null) return;
+        if (crime.getTime().isBefore(LocalDateTime.now().minusDays(windowDays))) return;
+        // An update is a remove followed by an add of the same id; the add wins over the pending removal.
+        removedWhileLoading.remove(crime.getId());
+        points.put(crime.getId(), new CrimePoint(crime.getLocation().getY(), crime.getLocation().getX(),
+                CrimeTypeUtil.normalize(crime.getType()), crime.getTime()));
+        dirty = true;
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        if (crime.getId() == null) return;
+        if (!loaded) removedWhileLoading.add(crime.getId());
+        if (points.remove(crime.getId()) != null) dirty = true;
+    }
+
+    public Map<String, Object> getHotspots(int limit) {
+        List<Map<String, Object>> current = hotspots;
+        Map<String, Object> result = new HashMap<>();
+        result.put("hotspots", current.subList(0, Math.min(limit, current.size())));
+        result.put("computedAt", computedAt);
+        result.put("windowDays", windowDays);
+        return result;
+    }
+
+    @Scheduled(initialDelayString = "${crimes.hotspots.initial-delay-ms:10000}",
+               fixedDelayString = "${crimes.hotspots.refresh-ms:60000}")
+    public void refresh() {
+        // The scheduler thread also drives the mail outbox and the sweeps, so the load and the clustering
+        // run on the pool and a pass still in progress is simply skipped.
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            pool.execute(() -> {
+                try {
+                    recompute();
+                } catch (RuntimeException e) {
+                    log.warn("Hotspot detection failed: {}", e.getMessage(), e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    void recompute() {
+        if (!loaded) {
+            loadRecentCrimes();
+            loaded = true;
+            removedWhileLoading.forEach(points::remove);
+            removedWhileLoading.clear();
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(windowDays);
+        if (points.values().removeIf(p -> p.time().isBefore(cutoff))) dirty = true;
+        if (!dirty) return;
+        dirty = false;
+        try {
+            hotspots = cluster(new ArrayList<>(points.values()));
+            computedAt = LocalDateTime.now();
+        } catch (RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    private void loadRecentCrimes() {
+        Query query = new Query(Criteria.where("time").gte(LocalDateTime.now().minusDays(windowDays)));
+        query.fields().include("location").include("type").include("time");
+        try (Stream<CrimeReport> crimes = mongoTemplate.stream(query, CrimeReport.class)) {
+            crimes.forEach(crime -> {
+                if (crime.getLocation() == null) return;
+                // Crimes reported while the load was running are already in the map.
+                points.putIfAbsent(crime.getId(), new CrimePoint(crime.getLocation().getY(), crime.getLocation().getX(),
+                        CrimeTypeUtil.normalize(crime.getType()), crime.getTime()));
+            });
+        }
+    }
+
+    List<Map<String, Object>> cluster(List<CrimePoint> snapshot) {
+        int n = snapshot.size();
+        if (n == 0) return Collections.emptyList();
+
+        double refLat = 0;
+        for (CrimePoint p : snapshot) refLat += p.lat();
+        double cosLat = Math.cos(Math.toRadians(refLat / n));
+        double[] xs = new double[n], ys = new double[n];
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            xs[i] = snapshot.get(i).lng() * METERS_PER_DEGREE * cosLat;
+            ys[i] = snapshot.get(i).lat() * METERS_PER_DEGREE;
+            grid.computeIfAbsent(cellKey(xs[i], ys[i]), k -> new ArrayList<>()).add(i);
+        }
+
+        double eps2 = epsMeters * epsMeters;
+        boolean[] core = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(i -> core[i] = neighbors(i, xs, ys, grid, eps2).size() >= minPoints);
+
+        int[] labels = new int[n];
+        int clusterCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (labels[i] != 0 || !core[i]) continue;
+            int label = ++clusterCount;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            labels[i] = label;
+            queue.add(i);
+            while (!queue.isEmpty()) {
+                int p = queue.poll();
+                if (!core[p]) continue;
+                for (int q : neighbors(p, xs, ys, grid, eps2)) {
+                    if (labels[q] != 0) continue;
+                    labels[q] = label;
+                    queue.add(q);
+                }
+            }
+        }
+
+        List<List<Integer>> members = new ArrayList<>();
+        for (int c = 0; c < clusterCount; c++) members.add(new ArrayList<>());
+        for (int i = 0; i < n; i++) {
+            if (labels[i] > 0) members.get(labels[i] - 1).add(i);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(members.parallelStream()
+            .map(m -> describe(m, snapshot, xs, ys))
+            .toList());
+        result.sort((a, b) -> Double.compare((double) b.get("score"), (double) a.get("score")));
+        for (int i = 0; i < result.size(); i++) result.get(i).put("rank", i + 1);
+        return result;
+    }
+
+    private List<Integer> neighbors(int i, double[] xs, double[] ys, Map<Long, List<Integer>> grid, double eps2) {
+        List<Integer> found = new ArrayList<>();
+        long cx = (long) Math.floor(xs[i] / epsMeters);
+        long cy = (long) Math.floor(ys[i] / epsMeters);
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                List<Integer> cell = grid.get(((cx + dx) << 32) ^ ((cy + dy) & 0xffffffffL));
+                if (cell == null) continue;
+                for (int j : cell) {
+                    double ddx = xs[i] - xs[j], ddy = ys[i] - ys[j];
+                    if (ddx * ddx + ddy * ddy <= eps2) found.add(j);
+                }
+            }
+        }
+        return found;
+    }
+
+    private long cellKey(double x, double y) {
+        long cx = (long) Math.floor(x / epsMeters);
+        long cy = (long) Math.floor(y / epsMeters);
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+
+    private Map<String, Object> describe(List<Integer> member, List<CrimePoint> snapshot, double[] xs, double[] ys) {
+        double sumLat = 0, sumLng = 0, score = 0;
+        Map<String, Integer> typeCounts = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i : member) {
+            CrimePoint p = snapshot.get(i);
+            sumLat += p.lat();
+            sumLng += p.lng();
+            double ageDays = Math.max(0, Duration.between(p.time(), now).toHours() / 24.0);
+            score += CrimeTypeUtil.severity(p.type()) * Math.exp(-ageDays / windowDays);
+            if (p.type() != null) typeCounts.merge(p.type(), 1, Integer::sum);
+        }
+        String dominantType = typeCounts.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse("unknown");
+
+        List<Map<String, Double>> polygon = new ArrayList<>();
+        for (int i : convexHull(member, xs, ys)) {
+            polygon.add(Map.of("lat", snapshot.get(i).lat(), "lng", snapshot.get(i).lng()));
+        }
+
+        Map<String, Object> hotspot = new HashMap<>();
+        hotspot.put("lat", sumLat / member.size());
+        hotspot.put("lng", sumLng / member.size());
+        hotspot.put("count", member.size());
+        hotspot.put("score", score);
+        hotspot.put("dominantType", dominantType);
+        hotspot.put("polygon", polygon);
+        return hotspot;
+    }
+
+    private List<Integer> convexHull(List<Integer> member, double[] xs, double[] ys) {
+        List<Integer> sorted = new ArrayList<>(member);
+        sorted.sort((a, b) -> xs[a] != xs[b] ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]));
+        if (sorted.size() < 3) return sorted;
+        int[] hull = new int[2 * sorted.size()];
+        int k = 0;
+        for (int i : sorted) {
+            while (k >= 2 && cross(hull[k - 2], hull[k - 1], i, xs, ys) <= 0) k--;
+            hull[k++] = i;
+        }
+        for (int idx = sorted.size() - 2, lower = k + 1; idx >= 0; idx--) {
+            int i = sorted.get(idx);
+            while (k >= lower && cross(hull[k - 2], hull[k - 1], i, xs, ys) <= 0) k--;
+            hull[k++] = i;
+        }
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < k - 1; i++) result.add(hull[i]);
+        return result;
+    }
+
+    private double cross(int o, int a, int b, double[] xs, double[] ys) {
+        return (xs[a] - xs[o]) * (ys[b] - ys[o]) - (ys[a] - ys[o]) * (xs[b] - xs[o]);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
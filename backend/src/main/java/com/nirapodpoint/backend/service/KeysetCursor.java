@@ -0,0 +1,36 @@
+package com.nirapodpoint.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque page position for lists sorted by a timestamp and then by id: the last item's
+ * (time, id) pair, URL-safe base64 encoded. A null time is encoded as an empty timestamp.
+ */
+final class KeysetCursor {
+    final LocalDateTime time;
+    final String id;
+
+    private KeysetCursor(LocalDateTime time, String id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    static String encode(LocalDateTime time, String id) {
+        String raw = (time == null ? "" : time.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|", 2);
+            if (position.length != 2) throw new IllegalArgumentException("Invalid cursor");
+            return new KeysetCursor(position[0].isEmpty() ? null : LocalDateTime.parse(position[0]), position[1]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.MailOutboxMessage;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a batch of outbox messages over a single SMTP connection and reports per-message failures.
+ */
+@Component
+public class MailBatchSender {
+    private final JavaMailSender mailSender;
+    private final String fromEmail;
+
+    @Autowired
+    public MailBatchSender(JavaMailSender mailSender, @Value("${spring.mail.username}") String fromEmail) {
+        this.mailSender = mailSender;
+        this.fromEmail = fromEmail;
+    }
+
+    /**
+     * @return failures keyed by outbox message id; messages not in the map were delivered
+     */
+    public Map<String, Exception> send(List<MailOutboxMessage> batch) {
+        Map<String, Exception> failures = new HashMap<>();
+        Map<MimeMessage, String> ids = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (MailOutboxMessage outbox : batch) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true);
+                helper.setFrom("Nirapod Point <" + fromEmail + ">");
+                helper.setTo(outbox.getTo());
+                helper.setSubject(outbox.getSubject());
+                helper.setText(outbox.getHtml(), true);
+                messages.add(message);
+                ids.put(message, outbox.getId());
+            } catch (MessagingException e) {
+                failures.put(outbox.getId(), e);
+            }
+        }
+        if (messages.isEmpty()) return failures;
+
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                ids.values().forEach(id -> failures.put(id, e));
+            } else {
+                failed.forEach((message, error) -> {
+                    String id = ids.get(message);
+                    if (id != null) failures.put(id, error);
+                });
+            }
+        } catch (MailException e) {
+            ids.values().forEach(id -> failures.put(id, e));
+        }
+        return failures;
+    }
+}
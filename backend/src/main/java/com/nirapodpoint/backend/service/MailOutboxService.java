@@ -0,0 +1,149 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.MailOutboxMessage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class MailOutboxService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MailBatchSender mailBatchSender;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${mail.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${mail.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    private final ExecutorService pool;
+    private final Semaphore idleWorkers;
+
+    public MailOutboxService(@Value("${mail.outbox.workers:2}") int workers) {
+        this.pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "mail-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        this.idleWorkers = new Semaphore(workers);
+    }
+
+    public MailOutboxMessage enqueue(String to, String subject, String html) {
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setHtml(html);
+        return mongoTemplate.insert(message);
+    }
+
+    @Scheduled(initialDelayString = "${mail.outbox.initial-delay-ms:5000}",
+               fixedDelayString = "${mail.outbox.poll-ms:1000}")
+    public void dispatch() {
+        while (idleWorkers.tryAcquire()) {
+            List<MailOutboxMessage> batch = claimBatch();
+            if (batch.isEmpty()) {
+                idleWorkers.release();
+                return;
+            }
+            pool.execute(() -> {
+                try {
+                    deliver(batch);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    private List<MailOutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("status").is(MailOutboxMessage.PENDING).and("nextAttemptAt").lte(now),
+            Criteria.where("status").is(MailOutboxMessage.SENDING).and("lockedUntil").lt(now)
+        )).with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+            .set("status", MailOutboxMessage.SENDING)
+            .set("lockedUntil", now.plusSeconds(leaseSeconds))
+            .inc("attempts", 1);
+
+        List<MailOutboxMessage> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            MailOutboxMessage claimed = mongoTemplate.findAndModify(query, claim,
+                FindAndModifyOptions.options().returnNew(true), MailOutboxMessage.class);
+            if (claimed == null) break;
+            batch.add(claimed);
+        }
+        return batch;
+    }
+
+    private void deliver(List<MailOutboxMessage> batch) {
+        Map<String, Exception> failures;
+        try {
+            failures = mailBatchSender.send(batch);
+        } catch (RuntimeException e) {
+            failures = new HashMap<>();
+            for (MailOutboxMessage message : batch) failures.put(message.getId(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (MailOutboxMessage message : batch) {
+            Exception error = failures.get(message.getId());
+            Update update;
+            if (error == null) {
+                update = new Update()
+                    .set("status", MailOutboxMessage.SENT)
+                    .set("sentAt", now)
+                    .unset("lockedUntil")
+                    .unset("html");
+            } else if (message.getAttempts() >= maxAttempts) {
+                update = new Update()
+                    .set("status", MailOutboxMessage.FAILED)
+                    .set("failedAt", now)
+                    .set("lastError", String.valueOf(error.getMessage()))
+                    .unset("lockedUntil")
+                    .unset("html");
+            } else {
+                long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(message.getAttempts() - 1, 20));
+                update = new Update()
+                    .set("status", MailOutboxMessage.PENDING)
+                    .set("nextAttemptAt", now.plusSeconds(delay))
+                    .set("lastError", String.valueOf(error.getMessage()))
+                    .unset("lockedUntil");
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(message.getId())), update, MailOutboxMessage.class);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
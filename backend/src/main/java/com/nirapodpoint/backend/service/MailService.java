@@ -1,42 +1,110 @@
 package com.nirapodpoint.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Renders transactional emails and places them in the mail outbox. Delivery happens in
+ * {@link MailOutboxService}, off the request thread.
+ */
 @Service
 public class MailService {
     @Autowired
-    private JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
-
-    public void sendVerificationApprovedEmail(String to, String userName) throws MessagingException {
-        String subject = "Your Nirapod Point Account is Verified!";
-        String html = getApprovedHtmlTemplate(userName);
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setFrom("Nirapod Point <" + fromEmail + ">");
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(html, true);
-        mailSender.send(message);
+    private MailOutboxService mailOutboxService;
+
+    private static final Template APPROVED = Template.compile(approvedSource());
+    private static final Template DISAPPROVED = Template.compile(disapprovedSource());
+    private static final Template PASSWORD_RESET_OTP = Template.compile(passwordResetOtpSource());
+
+    public void sendVerificationApprovedEmail(String to, String userName) {
+        mailOutboxService.enqueue(to, "Your Nirapod Point Account is Verified!",
+            APPROVED.render(Map.of("userName", nameOrEmpty(userName))));
+    }
+
+    public void sendVerificationDisapprovedEmail(String to, String userName) {
+        mailOutboxService.enqueue(to, "Your Nirapod Point Account Verification Status",
+            DISAPPROVED.render(Map.of("userName", nameOrEmpty(userName))));
+    }
+
+    public void sendPasswordResetOtpEmail(String to, String userName, String otp) {
+        mailOutboxService.enqueue(to, "Nirapod Point Password Reset OTP",
+            PASSWORD_RESET_OTP.render(Map.of("userName", nameOrEmpty(userName), "otp", otp)));
+    }
+
+    // Users may never have set a name; Map.of rejects null values.
+    private static String nameOrEmpty(String userName) {
+        return Objects.requireNonNullElse(userName, "");
+    }
+
+    /**
+     * A template split once into literal segments and {{name}} placeholders, so rendering is a
+     * single pass of appends. Values are HTML-escaped.
+     */
+    static final class Template {
+        private final String[] literals;
+        private final String[] names;
+
+        private Template(String[] literals, String[] names) {
+            this.literals = literals;
+            this.names = names;
+        }
+
+        static Template compile(String source) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int pos = 0;
+            while (true) {
+                int open = source.indexOf("{{", pos);
+                if (open < 0) break;
+                int close = source.indexOf("}}", open);
+                if (close < 0) throw new IllegalArgumentException("Unterminated placeholder at " + open);
+                literals.add(source.substring(pos, open));
+                names.add(source.substring(open + 2, close).trim());
+                pos = close + 2;
+            }
+            literals.add(source.substring(pos));
+            return new Template(literals.toArray(new String[0]), names.toArray(new String[0]));
+        }
+
+        String render(Map<String, String> values) {
+            StringBuilder out = new StringBuilder(literals[0].length() * 2);
+            out.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                escape(values.get(names[i]), out);
+                out.append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+
+        private static void escape(String value, StringBuilder out) {
+            if (value == null) return;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '&' -> out.append("&amp;");
+                    case '"' -> out.append("&quot;");
+                    case '\'' -> out.append("&#39;");
+                    default -> out.append(c);
+                }
+            }
+        }
     }
 
-    private String getApprovedHtmlTemplate(String userName) {
+    private static String approvedSource() {
         return """
         <div style='background:linear-gradient(135deg,#e0e7ff,#fff 60%,#bae6fd);padding:40px 0;'>
           <div style='max-width:480px;margin:0 auto;background:rgba(255,255,255,0.95);border-radius:18px;box-shadow:0 8px 32px 0 rgba(31,38,135,0.18);padding:32px 24px;font-family:sans-serif;'>
             <h2 style='color:#2563eb;font-size:2rem;margin-bottom:12px;text-align:center;'>Nirapod Point</h2>
             <p style='font-size:1.1rem;color:#222;margin-bottom:18px;'>
         """ +
-        "Hello <b>" + userName + "</b>,<br><br>\n" +
+        "Hello <b>{{userName}}</b>,<br><br>\n" +
         "Congratulations! Your Nirapod Point account has been <span style='color:#22c55e;font-weight:bold;'>verified</span> by our admin team.<br><br>\n" +
         "You can now <b>report crimes</b> and help make your community safer.\n" +
         "</p>\n" +
@@ -51,26 +119,14 @@ public class MailService {
         "</div>\n";
     }
 
-    public void sendVerificationDisapprovedEmail(String to, String userName) throws MessagingException {
-        String subject = "Your Nirapod Point Account Verification Status";
-        String html = getDisapprovedHtmlTemplate(userName);
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setFrom("Nirapod Point <" + fromEmail + ">");
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(html, true);
-        mailSender.send(message);
-    }
-
-    private String getDisapprovedHtmlTemplate(String userName) {
+    private static String disapprovedSource() {
         return """
         <div style='background:linear-gradient(135deg,#fee2e2,#fff 60%,#fca5a5);padding:40px 0;'>
           <div style='max-width:480px;margin:0 auto;background:rgba(255,255,255,0.95);border-radius:18px;box-shadow:0 8px 32px 0 rgba(239,68,68,0.18);padding:32px 24px;font-family:sans-serif;'>
             <h2 style='color:#dc2626;font-size:2rem;margin-bottom:12px;text-align:center;'>Nirapod Point</h2>
             <p style='font-size:1.1rem;color:#222;margin-bottom:18px;'>
         """ +
-        "Hello <b>" + userName + "</b>,<br><br>\n" +
+        "Hello <b>{{userName}}</b>,<br><br>\n" +
         "We regret to inform you that your Nirapod Point account <span style='color:#dc2626;font-weight:bold;'>verification has been disapproved</span> by our admin team.<br><br>\n" +
         "Please ensure your provided information and NID images are clear and valid. You may contact support for further assistance or try registering again.\n" +
         "</p>\n" +
@@ -85,29 +141,17 @@ public class MailService {
         "</div>\n";
     }
 
-    public void sendPasswordResetOtpEmail(String to, String userName, String otp) throws MessagingException {
-        String subject = "Nirapod Point Password Reset OTP";
-        String html = getPasswordResetOtpHtmlTemplate(userName, otp);
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setFrom("Nirapod Point <" + fromEmail + ">");
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(html, true);
-        mailSender.send(message);
-    }
-
-    private String getPasswordResetOtpHtmlTemplate(String userName, String otp) {
+    private static String passwordResetOtpSource() {
         return """
         <div style='background:linear-gradient(135deg,#e0e7ff,#fff 60%,#bae6fd);padding:40px 0;'>
           <div style='max-width:480px;margin:0 auto;background:rgba(255,255,255,0.95);border-radius:18px;box-shadow:0 8px 32px 0 rgba(31,38,135,0.18);padding:32px 24px;font-family:sans-serif;'>
             <h2 style='color:#2563eb;font-size:2rem;margin-bottom:12px;text-align:center;'>Nirapod Point</h2>
             <p style='font-size:1.1rem;color:#222;margin-bottom:18px;'>
         """ +
-        "Hello <b>" + userName + "</b>,<br><br>\n" +
+        "Hello <b>{{userName}}</b>,<br><br>\n" +
         "We received a request to reset your Nirapod Point account password.<br><br>\n" +
         "<b>Your OTP code is:</b><br>\n" +
-        "<span style='font-size:2rem;color:#2563eb;font-weight:bold;letter-spacing:4px;'>" + otp + "</span><br><br>\n" +
+        "<span style='font-size:2rem;color:#2563eb;font-weight:bold;letter-spacing:4px;'>{{otp}}</span><br><br>\n" +
         "This OTP is valid for <b>5 minutes</b>. If you did not request this, you can ignore this email.<br><br>\n" +
         "</p>\n" +
         "<p style='font-size:0.95rem;color:#555;text-align:center;margin-top:24px;'>\n" +
@@ -117,4 +161,4 @@ public class MailService {
         "  </div>\n" +
         "</div>\n";
     }
-} 
\ No newline at end of file
+}
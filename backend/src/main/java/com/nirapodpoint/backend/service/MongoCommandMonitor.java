@@ -0,0 +1,257 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every MongoDB command per command name and collection, counts the documents each one
+ * returned or touched, and keeps the shapes of commands slower than the threshold so they can be
+ * listed and explained later. Shapes keep field names and operators but replace values with "?".
+ */
+@Component
+public class MongoCommandMonitor implements CommandListener {
+    private static final Logger log = LoggerFactory.getLogger(MongoCommandMonitor.class);
+
+    // Commands worth a shape and a sample; explain accepts all of these.
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "findAndModify");
+    // Never inspected: authentication payloads and connection handshakes.
+    private static final Set<String> IGNORED_COMMANDS = Set.of("saslStart", "saslContinue", "authenticate", "hello", "isMaster", "ismaster");
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry registry;
+    private final long slowNanos;
+    private final int maxShapes;
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, CommandMeters>> meters = new ConcurrentHashMap<>();
+    private final Map<String, SlowQuery> slowQueries = new ConcurrentHashMap<>();
+
+    // The raw command is kept as bytes; its shape and sample are only worked out if it turns out slow.
+    private record InFlight(String command, String collection, RawBsonDocument raw) {}
+
+    private record CommandMeters(Timer succeeded, Timer failed, DistributionSummary documents, Counter slow) {}
+
+    public static class SlowQuery {
+        public final String id;
+        public final String database;
+        public final String command;
+        public final String collection;
+        public final String shape;
+        public long count;
+        public double maxMs;
+        public double lastMs;
+        public long lastDocuments;
+        BsonDocument sample;
+
+        SlowQuery(String id, String database, String command, String collection, String shape) {
+            this.id = id;
+            this.database = database;
+            this.command = command;
+            this.collection = collection;
+            this.shape = shape;
+        }
+    }
+
+    public MongoCommandMonitor(MeterRegistry registry,
+                               @Value("${mongodb.slow-query.threshold-ms:100}") long thresholdMs,
+                               @Value("${mongodb.slow-query.max-shapes:200}") int maxShapes) {
+        this.registry = registry;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String name = event.getCommandName();
+        if (IGNORED_COMMANDS.contains(name)) return;
+        BsonDocument command = event.getCommand();
+        String collection = collectionOf(name, command);
+        RawBsonDocument raw = null;
+        // The command document is only valid during this callback, so a query is copied out now, as one
+        // flat byte array rather than a tree of values.
+        if (QUERY_COMMANDS.contains(name)) {
+            raw = command instanceof RawBsonDocument r ? r : new RawBsonDocument(command, CODEC);
+        }
+        inFlight.put(event.getRequestId(), new InFlight(name, collection, raw));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        long documents = documentsOf(started.command(), event.getResponse());
+        CommandMeters m = metersFor(started.command(), started.collection());
+        m.succeeded().record(nanos, TimeUnit.NANOSECONDS);
+        m.documents().record(documents);
+        if (nanos >= slowNanos) {
+            m.slow().increment();
+            slow(event.getDatabaseName(), started, nanos / 1_000_000.0, documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+        metersFor(started.command(), started.collection()).failed()
+            .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Slow query shapes, slowest first.
+     */
+    public List<SlowQuery> slowQueries() {
+        List<SlowQuery> list = new ArrayList<>(slowQueries.values());
+        list.sort(Comparator.comparingDouble((SlowQuery q) -> q.maxMs).reversed());
+        return list;
+    }
+
+    public SlowQuery slowQuery(String id) {
+        return slowQueries.get(id);
+    }
+
+    private void slow(String database, InFlight started, double ms, long documents) {
+        String shape = started.raw() != null ? shapeOf(started.command(), started.raw()) : "-";
+        log.warn("Slow MongoDB {} on {} took {} ms and returned {} documents: {}",
+            started.command(), started.collection(), Math.round(ms), documents, shape);
+        if (started.raw() == null) return;
+        String id = Integer.toHexString((database + "." + started.collection() + " " + started.command() + " " + shape).hashCode());
+        SlowQuery query = slowQueries.get(id);
+        if (query == null) {
+            if (slowQueries.size() >= maxShapes) return;
+            query = slowQueries.computeIfAbsent(id, k -> new SlowQuery(k, database, started.command(), started.collection(), shape));
+        }
+        synchronized (query) {
+            query.count++;
+            query.lastMs = ms;
+            query.maxMs = Math.max(query.maxMs, ms);
+            query.lastDocuments = documents;
+            query.sample = sampleOf(started.raw());
+        }
+    }
+
+    // The command as explain wants it: without session, transaction and other $-prefixed fields.
+    private static BsonDocument sampleOf(RawBsonDocument raw) {
+        BsonDocument sample = raw.decode(CODEC);
+        sample.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid") || key.equals("txnNumber"));
+        return sample;
+    }
+
+    private CommandMeters metersFor(String command, String collection) {
+        return meters.computeIfAbsent(command, c -> new ConcurrentHashMap<>())
+            .computeIfAbsent(collection, c -> new CommandMeters(
+                timer(command, collection, "success"),
+                timer(command, collection, "failed"),
+                DistributionSummary.builder("mongodb.command.documents")
+                    .description("Documents returned or written by a MongoDB command")
+                    .tags("command", command, "collection", collection)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(100_000.0)
+                    .register(registry),
+                Counter.builder("mongodb.command.slow")
+                    .tags("command", command, "collection", collection)
+                    .register(registry)));
+    }
+
+    private Timer timer(String command, String collection, String status) {
+        return Timer.builder("mongodb.command")
+            .description("MongoDB command round-trip time")
+            .tags("command", command, "collection", collection, "status", status)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+    }
+
+    private static String collectionOf(String name, BsonDocument command) {
+        BsonValue target = command.get(name.equals("getMore") ? "collection" : name);
+        return target != null && target.isString() ? target.asString().getValue() : "-";
+    }
+
+    static String shapeOf(String name, BsonDocument command) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : new String[]{"filter", "query", "pipeline", "sort", "key"}) {
+            BsonValue value = command.get(part);
+            if (value == null) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(part).append('=');
+            if (part.equals("key")) {
+                sb.append(value.isString() ? value.asString().getValue() : "?");
+            } else {
+                appendShape(sb, value);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendShape(StringBuilder sb, BsonValue value) {
+        if (value.isDocument()) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(entry.getKey()).append(": ");
+                appendShape(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            if (!array.isEmpty() && array.get(0).isDocument()) {
+                sb.append('[');
+                for (int i = 0; i < array.size(); i++) {
+                    if (i > 0) sb.append(", ");
+                    appendShape(sb, array.get(i));
+                }
+                sb.append(']');
+            } else {
+                sb.append("[?]");
+            }
+        } else {
+            sb.append('?');
+        }
+    }
+
+    private static long documentsOf(String name, BsonDocument response) {
+        if (response == null) return 0;
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray batch = cursor.getArray(name.equals("getMore") ? "nextBatch" : "firstBatch", null);
+            return batch != null ? batch.size() : 0;
+        }
+        if (name.equals("distinct")) {
+            BsonArray values = response.getArray("values", null);
+            return values != null ? values.size() : 0;
+        }
+        if (name.equals("findAndModify")) {
+            BsonValue value = response.get("value");
+            return value != null && value.isDocument() ? 1 : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+}
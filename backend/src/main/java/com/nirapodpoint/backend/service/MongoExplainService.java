@@ -0,0 +1,101 @@
+package com.nirapodpoint.backend.service;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Re-runs the last sample of a slow query shape under explain and boils the plan down to the stages,
+ * indexes and examined/returned counts.
+ */
+@Service
+public class MongoExplainService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoCommandMonitor monitor;
+
+    public Optional<Map<String, Object>> explain(String slowQueryId) {
+        MongoCommandMonitor.SlowQuery query = monitor.slowQuery(slowQueryId);
+        if (query == null) return Optional.empty();
+        BsonDocument sample;
+        synchronized (query) {
+            sample = query.sample;
+        }
+        if (sample == null) return Optional.empty();
+
+        Document result = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase(query.database)
+            .runCommand(new Document("explain", sample).append("verbosity", "executionStats"));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", query.id);
+        summary.put("command", query.command);
+        summary.put("collection", query.collection);
+        summary.put("shape", query.shape);
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        Document winningPlan = find(result, "winningPlan");
+        if (winningPlan != null) {
+            collectStages(winningPlan, stages, indexes);
+        }
+        summary.put("stages", stages);
+        summary.put("indexes", indexes);
+        summary.put("collectionScan", stages.contains("COLLSCAN"));
+        Document stats = find(result, "executionStats");
+        if (stats != null) {
+            summary.put("nReturned", stats.get("nReturned"));
+            summary.put("totalKeysExamined", stats.get("totalKeysExamined"));
+            summary.put("totalDocsExamined", stats.get("totalDocsExamined"));
+            summary.put("executionTimeMillis", stats.get("executionTimeMillis"));
+        }
+        return Optional.of(summary);
+    }
+
+    // Aggregations nest the planner output under stages[0].$cursor, so search rather than index into it.
+    private static Document find(Object node, String key) {
+        if (node instanceof Document doc) {
+            if (doc.get(key) instanceof Document found) return found;
+            for (Object value : doc.values()) {
+                Document found = find(value, key);
+                if (found != null) return found;
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                Document found = find(value, key);
+                if (found != null) return found;
+            }
+        }
+        return null;
+    }
+
+    private static void collectStages(Document plan, List<String> stages, List<String> indexes) {
+        // Slot-based plans wrap the classic tree in queryPlan.
+        if (plan.get("queryPlan") instanceof Document inner) {
+            collectStages(inner, stages, indexes);
+            return;
+        }
+        if (plan.getString("stage") != null) {
+            stages.add(plan.getString("stage"));
+        }
+        if (plan.getString("indexName") != null) {
+            indexes.add(plan.getString("indexName"));
+        }
+        if (plan.get("inputStage") instanceof Document input) {
+            collectStages(input, stages, indexes);
+        }
+        if (plan.get("inputStages") instanceof List<?> inputs) {
+            for (Object input : inputs) {
+                if (input instanceof Document doc) collectStages(doc, stages, indexes);
+            }
+        }
+    }
+}
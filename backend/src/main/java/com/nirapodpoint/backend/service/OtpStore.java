@@ -0,0 +1,65 @@
+package com.nirapodpoint.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One-time passwords keyed by email. Entries expire after the TTL; a scheduled sweep removes
+ * the ones nobody came back to verify, and the store refuses new codes once it is full.
+ */
+@Component
+public class OtpStore {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Duration ttl;
+
+    private record Entry(String otp, Instant expiry) {}
+
+    public OtpStore(@Value("${security.otp.max-entries:10000}") int maxEntries,
+                    @Value("${security.otp.ttl-minutes:5}") long ttlMinutes) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void put(String email, String otp) {
+        if (entries.size() >= maxEntries && !entries.containsKey(email)) {
+            sweep();
+            if (entries.size() >= maxEntries) {
+                throw new IllegalStateException("Too many pending password resets, please try again later");
+            }
+        }
+        entries.put(email, new Entry(otp, Instant.now().plus(ttl)));
+    }
+
+    /**
+     * Consumes the code if it matches and has not expired.
+     */
+    public boolean verify(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null) return false;
+        if (Instant.now().isAfter(entry.expiry())) {
+            entries.remove(email, entry);
+            return false;
+        }
+        return entry.otp().equals(otp) && entries.remove(email, entry);
+    }
+
+    @Scheduled(fixedDelayString = "${security.otp.sweep-ms:60000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        entries.values().removeIf(e -> now.isAfter(e.expiry()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,156 @@
+package com.nirapodpoint.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the phases of findSafestRoute. Every meter is registered up front so recording is a
+ * plain call on a held reference with a nanoTime delta: no tags, builders or samples per request.
+ */
+@Component
+public class RouteMetrics {
+    public enum Phase { TILES, CRIME_QUERY, WEIGHTING, SNAPPING, ASTAR }
+
+    private final Timer[] phases = new Timer[Phase.values().length];
+    private final Timer success;
+    private final Timer failure;
+    private final DistributionSummary nodesSettled;
+    private final DistributionSummary crimesConsidered;
+    private final DistributionSummary edgesWeighted;
+    private final Counter graphHits;
+    private final Counter graphMisses;
+    private final Counter graphCoalesced;
+    private final Counter routesCoalesced;
+    private final Counter weightHits;
+    private final Counter weightMisses;
+    private final Map<String, Long> tileBytes = new ConcurrentHashMap<>();
+
+    public RouteMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phases[phase.ordinal()] = Timer.builder("route.phase")
+                .description("Time spent in one phase of a safest-route request")
+                .tag("phase", phase.name().toLowerCase())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        }
+        success = requestTimer(registry, "success");
+        failure = requestTimer(registry, "error");
+        nodesSettled = summary(registry, "route.astar.nodes.settled", "Nodes taken off the A* open set");
+        crimesConsidered = summary(registry, "route.crimes.considered", "Crimes in the route's query window");
+        edgesWeighted = summary(registry, "route.edges.weighted", "Edges given a crime weight");
+        graphHits = cache(registry, "route.graph.cache", "hit");
+        graphMisses = cache(registry, "route.graph.cache", "miss");
+        graphCoalesced = cache(registry, "route.graph.cache", "coalesced");
+        routesCoalesced = Counter.builder("route.coalesced")
+            .description("Route requests that joined an identical computation already in flight")
+            .register(registry);
+        weightHits = cache(registry, "route.weight.cache", "hit");
+        weightMisses = cache(registry, "route.weight.cache", "miss");
+        Gauge.builder("route.graph.cache.hit.ratio", this, m -> ratio(m.graphHits, m.graphMisses))
+            .register(registry);
+        Gauge.builder("route.weight.cache.hit.ratio", this, m -> ratio(m.weightHits, m.weightMisses))
+            .register(registry);
+        Gauge.builder("route.tiles.loaded", tileBytes, Map::size)
+            .description("Graph tiles held in memory")
+            .register(registry);
+        Gauge.builder("route.tiles.memory", tileBytes, m -> m.values().stream().mapToLong(Long::longValue).sum())
+            .description("Estimated heap held by loaded graph tiles")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry);
+    }
+
+    /**
+     * Meters backed by an empty composite registry, for a RouteService built outside Spring.
+     */
+    static RouteMetrics noop() {
+        return new RouteMetrics(new CompositeMeterRegistry());
+    }
+
+    private static Timer requestTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("route.request")
+            .description("End-to-end safest-route computation")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String name, String description) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(1_000_000.0)
+            .register(registry);
+    }
+
+    private static Counter cache(MeterRegistry registry, String name, String result) {
+        return Counter.builder(name).tag("result", result).register(registry);
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? Double.NaN : hits.count() / total;
+    }
+
+    void phase(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void request(long nanos, boolean ok) {
+        (ok ? success : failure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void nodesSettled(int count) {
+        nodesSettled.record(count);
+    }
+
+    void crimesConsidered(int count) {
+        crimesConsidered.record(count);
+    }
+
+    void edgesWeighted(int count, int cacheHits) {
+        edgesWeighted.record(count);
+        weightHits.increment(cacheHits);
+        weightMisses.increment(count - cacheHits);
+    }
+
+    void graphCache(boolean hit) {
+        (hit ? graphHits : graphMisses).increment();
+    }
+
+    void graphLoadCoalesced() {
+        graphCoalesced.increment();
+    }
+
+    void routeCoalesced() {
+        routesCoalesced.increment();
+    }
+
+    /**
+     * Rough retained size of a parsed tile: node and edge objects, their lists and map entries, and
+     * one double[2] per geometry point.
+     */
+    void tileLoaded(String key, RouteService.Graph graph) {
+        long points = 0;
+        for (RouteService.Edge edge : graph.edges()) {
+            points += edge.geometry.size();
+        }
+        long bytes = graph.nodes().size() * 152L + graph.edges().size() * 112L + points * 40L;
+        tileBytes.put(key, bytes);
+    }
+}
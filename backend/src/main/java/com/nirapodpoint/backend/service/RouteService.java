@@ -4,9 +4,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nirapodpoint.backend.model.RouteRequest;
 import com.nirapodpoint.backend.model.RouteResponse;
+import com.nirapodpoint.backend.model.WhatIfRouteRequest;
+import com.nirapodpoint.backend.model.WhatIfRouteResponse;
 import com.nirapodpoint.backend.model.CrimeReport;
-import com.nirapodpoint.backend.repository.CrimeReportRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
@@ -14,8 +16,15 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.cache.annotation.Cacheable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
 
 import java.io.InputStream;
 import java.time.LocalDateTime;
@@ -25,99 +34,182 @@ import java.util.stream.Collectors;
 
 @Service
 public class RouteService {
-    @Autowired
-    private CrimeReportRepository crimeReportRepository;
-    
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private CrimeWriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private RouteMetrics metrics = RouteMetrics.noop();
+
+    @Autowired
+    private CrimeRiskVersion riskVersion = new CrimeRiskVersion();
+
+    @Value("${routes.fetch-timeout-ms:10000}")
+    private long fetchTimeoutMs = 10000;
+
+    // Edge-to-crime proximity checks that make up one unit of admission cost.
+    @Value("${admission.cost.unit-work:1000000}")
+    private long costUnitWork = 1_000_000;
+
+    // Tile JSON bytes per edge in the shipped tiles, for sizing a tile that is not parsed yet.
+    private static final long TILE_BYTES_PER_EDGE = 330;
+
+    // Work of other steps in proximity checks, timed on the Kushtia drive tile: an A* search costs
+    // about one check per edge of the tile, bucketing an edge into the snapshot grid about forty, and
+    // scoring a crime against the edges of its grid cell about twenty.
+    private static final long ASTAR_WORK_PER_EDGE = 1;
+    private static final long GRID_WORK_PER_EDGE = 40;
+    private static final long SNAPSHOT_WORK_PER_CRIME = 20;
+
+    // Crimes the last route request starting in each district had to weigh.
+    private final Map<String, Integer> recentCrimeCounts = new ConcurrentHashMap<>();
+
+    @Value("${routes.what-if.max-crimes:50}")
+    private int whatIfMaxCrimes = 50;
+
+    // Base crime weights per tile for what-if queries, replaced when the crime set changes. One future
+    // per tile, like graphCache, so the crime query runs outside any map lock.
+    private final Map<String, CompletableFuture<RiskSnapshot>> riskSnapshots = new ConcurrentHashMap<>();
+
+    // Cell size of the per-tile edge grid in degrees, about 110 m.
+    private static final double GRID_CELL_DEGREES = 0.001;
+    private static final int MAX_ALTERNATIVES = 5;
+    private static final int MAX_ALTERNATIVE_SEARCHES = 12;
+
     
     private final Map<String, Object[]> edgeWeightCache = new ConcurrentHashMap<>();
     private static final long CACHE_DURATION_MINUTES = 30;
+    // Crimes within this distance of an edge add to its weight.
+    private static final double CRIME_BUFFER_METERS = 30;
 
-    private static class Node {
+    static class Node {
         double lat, lng;
         List<Edge> edges = new ArrayList<>();
         long id;
     }
-    private static class Edge {
+    static class Edge {
         Node from, to;
         List<double[]> geometry; 
-        double weight; 
+        // Set once when the tile is parsed; graphs are shared between requests and never written after.
         double length; 
     }
     
-    private final Map<String, Map<Long, Node>> nodeCache = new ConcurrentHashMap<>();
-    private final Map<String, List<Edge>> edgeCache = new ConcurrentHashMap<>();
+    // One future per tile key: concurrent requests for a cold tile wait on a single parse.
+    private final Map<String, CompletableFuture<Graph>> graphCache = new ConcurrentHashMap<>();
+
+    // Identical route computations in flight, keyed by snapped endpoints and crime data version.
+    private final Map<RouteKey, CompletableFuture<List<Node>>> inFlightRoutes = new ConcurrentHashMap<>();
+
+    record RouteKey(long startNode, long endNode, String startDistrict, String endDistrict,
+                    String networkType, long riskVersion) {}
 
     private static String getGraphKey(String district, String networkType) {
         return district.toLowerCase().replace(" ", "_") + "_" + networkType.toLowerCase();
     }
 
-    private void loadGraphIfNeeded(String district, String networkType) throws Exception {
+    record Graph(Map<Long, Node> nodes, List<Edge> edges) {}
+
+    Graph loadGraphIfNeeded(String district, String networkType) throws Exception {
         String key = getGraphKey(district, networkType);
-        if (nodeCache.containsKey(key) && edgeCache.containsKey(key)) return;
-        String filename = "osm_graphs/" + key + ".json";
-        ClassPathResource resource = new ClassPathResource(filename);
-        try (InputStream is = resource.getInputStream()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(is);
-            Map<Long, Node> nodes = new HashMap<>();
-            for (JsonNode n : root.get("nodes")) {
-                Node node = new Node();
-                node.id = n.get("id").asLong();
-                node.lat = n.get("lat").asDouble();
-                node.lng = n.get("lng").asDouble();
-                nodes.put(node.id, node);
-            }
-            List<Edge> edges = new ArrayList<>();
-            for (JsonNode e : root.get("edges")) {
-                long fromId = e.get("from").asLong();
-                long toId = e.get("to").asLong();
-                Node from = nodes.get(fromId);
-                Node to = nodes.get(toId);
-                if (from == null || to == null) continue;
-                Edge edge = new Edge();
-                edge.from = from;
-                edge.to = to;
-                edge.geometry = new ArrayList<>();
-                for (JsonNode coord : e.get("geometry")) {
-                    double lat = coord.get(0).asDouble();
-                    double lng = coord.get(1).asDouble();
-                    edge.geometry.add(new double[]{lat, lng});
+        CompletableFuture<Graph> existing = graphCache.get(key);
+        if (existing == null) {
+            CompletableFuture<Graph> created = new CompletableFuture<>();
+            existing = graphCache.putIfAbsent(key, created);
+            if (existing == null) {
+                metrics.graphCache(false);
+                String filename = "osm_graphs/" + key + ".json";
+                ClassPathResource resource = new ClassPathResource(filename);
+                try (InputStream is = resource.getInputStream()) {
+                    Graph graph = parseGraph(is);
+                    metrics.tileLoaded(key, graph);
+                    created.complete(graph);
+                    return graph;
+                } catch (Exception | Error e) {
+                    // Drop the failed future so the next request retries instead of inheriting the failure.
+                    graphCache.remove(key, created);
+                    created.completeExceptionally(e);
+                    throw e;
                 }
-                from.edges.add(edge);
-                edges.add(edge);
             }
-            nodeCache.put(key, nodes);
-            edgeCache.put(key, edges);
+        }
+        if (existing.isDone()) {
+            metrics.graphCache(true);
+        } else {
+            metrics.graphLoadCoalesced();
+        }
+        try {
+            return existing.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
     }
 
+    static Graph parseGraph(InputStream is) throws java.io.IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(is);
+        Map<Long, Node> nodes = new HashMap<>();
+        for (JsonNode n : root.get("nodes")) {
+            Node node = new Node();
+            node.id = n.get("id").asLong();
+            node.lat = n.get("lat").asDouble();
+            node.lng = n.get("lng").asDouble();
+            nodes.put(node.id, node);
+        }
+        List<Edge> edges = new ArrayList<>();
+        for (JsonNode e : root.get("edges")) {
+            long fromId = e.get("from").asLong();
+            long toId = e.get("to").asLong();
+            Node from = nodes.get(fromId);
+            Node to = nodes.get(toId);
+            if (from == null || to == null) continue;
+            Edge edge = new Edge();
+            edge.from = from;
+            edge.to = to;
+            edge.geometry = new ArrayList<>();
+            for (JsonNode coord : e.get("geometry")) {
+                double lat = coord.get(0).asDouble();
+                double lng = coord.get(1).asDouble();
+                edge.geometry.add(new double[]{lat, lng});
+            }
+            edge.length = calculateEdgeLength(edge);
+            from.edges.add(edge);
+            edges.add(edge);
+        }
+        return new Graph(nodes, edges);
+    }
+
     private String getEdgeCacheKey(Edge edge, String district) {
         return district + "_" + edge.from.id + "_" + edge.to.id;
     }
 
-    private double getEdgeWeight(Edge edge, String district, List<CrimeReport> nearbyCrimes) {
+    /**
+     * Puts the edge's weight into {@code weights} from the cache or by scoring nearby crimes; returns
+     * whether the cache hit.
+     */
+    private boolean applyEdgeWeight(Edge edge, String district, List<CrimeReport> nearbyCrimes, Map<Edge, Double> weights) {
         String cacheKey = getEdgeCacheKey(edge, district);
         Object[] cached = edgeWeightCache.get(cacheKey);
         
         if (cached != null) {
             long timestamp = (long) cached[1];
             if (System.currentTimeMillis() - timestamp < TimeUnit.MINUTES.toMillis(CACHE_DURATION_MINUTES)) {
-                return (double) cached[0];
+                weights.put(edge, (double) cached[0]);
+                return true;
             }
         }
 
         double weight = calculateEdgeWeight(edge, nearbyCrimes);
         edgeWeightCache.put(cacheKey, new Object[]{weight, System.currentTimeMillis()});
-        return weight;
+        weights.put(edge, weight);
+        return false;
     }
 
-    private double calculateEdgeWeight(Edge edge, List<CrimeReport> nearbyCrimes) {
+    double calculateEdgeWeight(Edge edge, List<CrimeReport> nearbyCrimes) {
         double totalScore = 0;
         for (CrimeReport crime : nearbyCrimes) {
-            if (isCrimeNearEdge(crime, edge, 30)) {
+            if (isCrimeNearEdge(crime, edge, CRIME_BUFFER_METERS)) {
                 double severity = getSeverity(crime.getType());
                 double recency = getRecency(crime.getTime(), LocalDateTime.now());
                 totalScore += severity * recency;
@@ -127,86 +219,363 @@ public class RouteService {
     }
 
     public RouteResponse findSafestRoute(RouteRequest request) {
-        
-        String startDistrict = DistrictUtil.findDistrict(request.getStartLat(), request.getStartLng());
-        String endDistrict = DistrictUtil.findDistrict(request.getEndLat(), request.getEndLng());
-        
-        if (startDistrict == null || endDistrict == null) 
-            throw new RuntimeException("No district found for points");
+        long requestStart = System.nanoTime();
+        boolean ok = false;
+        try (RouteFetch fetch = startFetch(request, requestStart + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs))) {
+            Graph graph = fetch.awaitGraph();
+            long phaseStart = System.nanoTime();
 
-        String networkType = request.getNetworkType();
-        
-        try {
+            Node start = findNearestNode(request.getStartLat(), request.getStartLng(), graph.nodes().values());
+            Node end = findNearestNode(request.getEndLat(), request.getEndLng(), graph.nodes().values());
             
-            loadGraphIfNeeded(startDistrict, networkType);
-            if (!startDistrict.equals(endDistrict)) {
-                loadGraphIfNeeded(endDistrict, networkType);
+            if (start == null || end == null) 
+                throw new RuntimeException("No nearby road found");
+            lap(RouteMetrics.Phase.SNAPPING, phaseStart);
+
+            RouteKey key = fetch.routeKey(start, end);
+            CompletableFuture<List<Node>> mine = new CompletableFuture<>();
+            CompletableFuture<List<Node>> leader = inFlightRoutes.putIfAbsent(key, mine);
+            List<Node> path;
+            if (leader != null) {
+                // Someone is already computing this exact route; our crime fetch is no longer needed.
+                fetch.cancelAll();
+                metrics.routeCoalesced();
+                path = awaitLeader(leader, fetch.deadlineNanos);
+            } else {
+                try {
+                    path = computeSafestPath(fetch, graph, start, end);
+                    mine.complete(path);
+                } catch (Exception | Error e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlightRoutes.remove(key, mine);
+                }
             }
 
-            
-            String startKey = getGraphKey(startDistrict, networkType);
-            Map<Long, Node> nodes = new HashMap<>(nodeCache.get(startKey));
-            List<Edge> edges = new ArrayList<>(edgeCache.get(startKey));
+            ok = true;
+            return toResponse(path);
 
-            
-            if (!startDistrict.equals(endDistrict)) {
-                String endKey = getGraphKey(endDistrict, networkType);
-                nodes.putAll(nodeCache.get(endKey));
-                edges.addAll(edgeCache.get(endKey));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to calculate route: " + e.getMessage(), e);
+        } finally {
+            metrics.request(System.nanoTime() - requestStart, ok);
+        }
+    }
+
+    private List<Node> computeSafestPath(RouteFetch fetch, Graph graph, Node start, Node end) throws Exception {
+        List<CrimeReport> nearbyCrimes = fetch.awaitCrimes(fetch.deadlineNanos);
+        long phaseStart = System.nanoTime();
+        Map<Edge, Double> weights = weightEdges(graph.edges(), fetch.startDistrict, nearbyCrimes);
+        phaseStart = lap(RouteMetrics.Phase.WEIGHTING, phaseStart);
+        List<Node> path = aStar(start, end, weights);
+        lap(RouteMetrics.Phase.ASTAR, phaseStart);
+        return path;
+    }
+
+    private static List<Node> awaitLeader(CompletableFuture<List<Node>> leader, long deadlineNanos) throws Exception {
+        try {
+            return leader.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Like findSafestRoute, but reports as it goes: a shortest-distance route as soon as the tiles are
+     * in memory, then the risk-weighted route. Once {@code budgetMs} has passed, the approximate
+     * route is sent as the final one instead of waiting any longer; if the tiles are not even loaded
+     * by then, a TimeoutException ends the stream.
+     */
+    public void streamSafestRoute(RouteRequest request, long budgetMs, RouteStreamListener listener) throws Exception {
+        long requestStart = System.nanoTime();
+        long budgetEnd = requestStart + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        try (RouteFetch fetch = startFetch(request, requestStart + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs))) {
+            // Cold tiles can take longer than the budget; let the client know the request is under way.
+            listener.progress("started");
+            Graph graph;
+            try {
+                graph = fetch.awaitGraph(Math.min(budgetEnd, fetch.deadlineNanos));
+            } catch (TimeoutException e) {
+                throw new TimeoutException("Road network not loaded within " + budgetMs + " ms");
             }
+            listener.progress("tiles");
 
+            Node start = findNearestNode(request.getStartLat(), request.getStartLng(), graph.nodes().values());
+            Node end = findNearestNode(request.getEndLat(), request.getEndLng(), graph.nodes().values());
+            if (start == null || end == null)
+                throw new RuntimeException("No nearby road found");
+
+            List<Node> quick = aStar(start, end, null, budgetEnd);
+            if (quick != null) {
+                listener.approximate(toResponse(quick));
+            }
+
+            List<Node> safest = null;
+            try {
+                CompletableFuture<List<Node>> leader = inFlightRoutes.get(fetch.routeKey(start, end));
+                if (leader != null) {
+                    fetch.cancelAll();
+                    metrics.routeCoalesced();
+                    safest = awaitLeader(leader, Math.min(budgetEnd, fetch.deadlineNanos));
+                } else {
+                    List<CrimeReport> nearbyCrimes = fetch.awaitCrimes(Math.min(budgetEnd, fetch.deadlineNanos));
+                    listener.progress("crimes");
+                    Map<Edge, Double> weights = weightEdges(graph.edges(), fetch.startDistrict, nearbyCrimes);
+                    listener.progress("weighting");
+                    safest = aStar(start, end, weights, budgetEnd);
+                }
+            } catch (TimeoutException e) {
+                // out of budget while waiting: fall back to the approximate route
+            }
+
+            if (safest != null) {
+                listener.route(toResponse(safest), true);
+            } else if (quick != null) {
+                listener.route(toResponse(quick), false);
+            } else {
+                throw new TimeoutException("No route found within " + budgetMs + " ms");
+            }
+        }
+    }
+
+    /**
+     * The tile loads and crime query for one request, running concurrently on virtual threads. They
+     * don't depend on each other, so a cold route costs about as much as its slowest fetch. Closing
+     * cancels whatever is still running and waits for it, so no task outlives the request.
+     */
+    private final class RouteFetch implements AutoCloseable {
+        final String startDistrict;
+        final String endDistrict;
+        final String networkType;
+        final long deadlineNanos;
+        final ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        final List<Future<Graph>> tiles = new ArrayList<>();
+        final Future<List<CrimeReport>> crimes;
+        final List<Future<?>> all = new ArrayList<>();
+
+        RouteFetch(RouteRequest request, String startDistrict, String endDistrict, long deadlineNanos) {
+            this.startDistrict = startDistrict;
+            this.endDistrict = endDistrict;
+            this.networkType = request.getNetworkType();
+            this.deadlineNanos = deadlineNanos;
 
             double minLat = Math.min(request.getStartLat(), request.getEndLat()) - 0.1;
             double maxLat = Math.max(request.getStartLat(), request.getEndLat()) + 0.1;
             double minLng = Math.min(request.getStartLng(), request.getEndLng()) - 0.1;
             double maxLng = Math.max(request.getStartLng(), request.getEndLng()) + 0.1;
 
-            
-            Query query = new Query(
-                Criteria.where("location").within(
-                    new org.springframework.data.geo.Box(
-                        new org.springframework.data.geo.Point(minLng, minLat),
-                        new org.springframework.data.geo.Point(maxLng, maxLat)
-                    )
-                )
-            );
-            List<CrimeReport> nearbyCrimes = mongoTemplate.find(query, CrimeReport.class);
+            tiles.add(scope.submit(() -> timedLoad(startDistrict, networkType)));
+            if (!startDistrict.equals(endDistrict)) {
+                tiles.add(scope.submit(() -> timedLoad(endDistrict, networkType)));
+            }
+            crimes = scope.submit(() -> timedCrimeQuery(minLat, maxLat, minLng, maxLng));
+            all.addAll(tiles);
+            all.add(crimes);
+        }
 
-            
-            for (Edge edge : edges) {
-                edge.weight = getEdgeWeight(edge, startDistrict, nearbyCrimes);
-                if (edge.length == 0) {
-                    edge.length = calculateEdgeLength(edge);
+        Graph awaitGraph() throws Exception {
+            return awaitGraph(deadlineNanos);
+        }
+
+        Graph awaitGraph(long deadline) throws Exception {
+            await(tiles, deadline);
+            Graph startGraph = tiles.get(0).get();
+            if (tiles.size() == 1) {
+                return new Graph(new HashMap<>(startGraph.nodes()), new ArrayList<>(startGraph.edges()));
+            }
+            Graph endGraph = tiles.get(1).get();
+            Map<Long, Node> nodes = new HashMap<>(startGraph.nodes());
+            List<Edge> edges = new ArrayList<>(startGraph.edges());
+            nodes.putAll(endGraph.nodes());
+            edges.addAll(endGraph.edges());
+            return new Graph(nodes, edges);
+        }
+
+        List<CrimeReport> awaitCrimes(long deadline) throws Exception {
+            await(List.of(crimes), deadline);
+            List<CrimeReport> nearbyCrimes = crimes.get();
+            metrics.crimesConsidered(nearbyCrimes.size());
+            recentCrimeCounts.put(startDistrict, nearbyCrimes.size());
+            return nearbyCrimes;
+        }
+
+        /**
+         * Waits for the tasks until the deadline. On the first failure or on timeout every task of
+         * the request is cancelled and the failure is rethrown.
+         */
+        private void await(List<? extends Future<?>> tasks, long deadline) throws Exception {
+            try {
+                for (Future<?> task : tasks) {
+                    task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
                 }
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new TimeoutException("Route data not loaded within the deadline");
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw e;
             }
+        }
 
-            
-            Node start = findNearestNode(request.getStartLat(), request.getStartLng(), nodes.values());
-            Node end = findNearestNode(request.getEndLat(), request.getEndLng(), nodes.values());
-            
-            if (start == null || end == null) 
-                throw new RuntimeException("No nearby road found");
+        RouteKey routeKey(Node start, Node end) {
+            return new RouteKey(start.id, end.id, startDistrict, endDistrict, networkType, riskVersion.current());
+        }
 
-            
-            List<Node> path = aStar(start, end);
-            
-            
-            List<RouteResponse.Coordinate> route = path.stream()
-                .map(n -> {
-                    RouteResponse.Coordinate c = new RouteResponse.Coordinate();
-                    c.setLat(n.lat);
-                    c.setLng(n.lng);
-                    return c;
-                })
-                .collect(Collectors.toList());
-
-            RouteResponse response = new RouteResponse();
-            response.setRoute(route);
-            return response;
+        void cancelAll() {
+            all.forEach(t -> t.cancel(true));
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to calculate route: " + e.getMessage(), e);
+        @Override
+        public void close() {
+            cancelAll();
+            scope.close();
+        }
+    }
+
+    /**
+     * Estimated cost of a safest-route request for the admission limiter: edges to weight times the
+     * crimes to check against each, which dominates a cold request. Only looks at what is already in
+     * memory: the parsed tile or its file size, and the crime count the district's last request saw.
+     */
+    public long estimateRouteCost(RouteRequest request) {
+        String startDistrict = DistrictUtil.findDistrict(request.getStartLat(), request.getStartLng());
+        String endDistrict = DistrictUtil.findDistrict(request.getEndLat(), request.getEndLng());
+        if (startDistrict == null || endDistrict == null || request.getNetworkType() == null) return 1;
+        long edges = estimatedEdges(startDistrict, request.getNetworkType());
+        if (!startDistrict.equals(endDistrict)) {
+            edges += estimatedEdges(endDistrict, request.getNetworkType());
+        }
+        return cost(edges, recentCrimeCounts.getOrDefault(startDistrict, 0));
+    }
+
+    /**
+     * Cost of a what-if or debug query: an A* search over the tiles per route it compares, plus
+     * rebuilding any tile snapshot that is stale. The overlay itself only touches the edges near the
+     * hypothetical crimes.
+     */
+    public long estimateWhatIfCost(RouteRequest request, int alternatives) {
+        String startDistrict = DistrictUtil.findDistrict(request.getStartLat(), request.getStartLng());
+        String endDistrict = DistrictUtil.findDistrict(request.getEndLat(), request.getEndLng());
+        if (startDistrict == null || endDistrict == null || request.getNetworkType() == null) return 1;
+        int searches = 2 + Math.min(Math.max(0, alternatives) * 3, MAX_ALTERNATIVE_SEARCHES);
+        long work = whatIfWork(startDistrict, request.getNetworkType(), searches);
+        if (!startDistrict.equals(endDistrict)) {
+            work += whatIfWork(endDistrict, request.getNetworkType(), searches);
+        }
+        return 1 + work / costUnitWork;
+    }
+
+    private long whatIfWork(String district, String networkType, int searches) {
+        long edges = estimatedEdges(district, networkType);
+        long work = edges * searches * ASTAR_WORK_PER_EDGE;
+        CompletableFuture<RiskSnapshot> cached = riskSnapshots.get(getGraphKey(district, networkType));
+        if (cached != null && !cached.isDone()) return work;
+        RiskSnapshot snapshot = cached != null && !cached.isCompletedExceptionally() ? cached.join() : null;
+        if (snapshot != null && snapshot.version() >= riskVersion.current()
+                && System.currentTimeMillis() - snapshot.builtAt() < TimeUnit.MINUTES.toMillis(CACHE_DURATION_MINUTES)) {
+            return work;
+        }
+        work += (long) recentCrimeCounts.getOrDefault(district, 0) * SNAPSHOT_WORK_PER_CRIME;
+        if (snapshot == null) work += edges * GRID_WORK_PER_EDGE;
+        return work;
+    }
+
+    private long cost(long edges, long checksPerEdge) {
+        return 1 + edges * Math.max(1, checksPerEdge) / costUnitWork;
+    }
+
+    private long estimatedEdges(String district, String networkType) {
+        String key = getGraphKey(district, networkType);
+        CompletableFuture<Graph> cached = graphCache.get(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return cached.join().edges().size();
+        }
+        try {
+            return new ClassPathResource("osm_graphs/" + key + ".json").contentLength() / TILE_BYTES_PER_EDGE;
+        } catch (java.io.IOException e) {
+            return 0;
+        }
+    }
+
+    private RouteFetch startFetch(RouteRequest request, long deadlineNanos) {
+        String startDistrict = DistrictUtil.findDistrict(request.getStartLat(), request.getStartLng());
+        String endDistrict = DistrictUtil.findDistrict(request.getEndLat(), request.getEndLng());
+        
+        if (startDistrict == null || endDistrict == null) 
+            throw new RuntimeException("No district found for points");
+        return new RouteFetch(request, startDistrict, endDistrict, deadlineNanos);
+    }
+
+    /**
+     * This request's crime weight for each edge. Kept out of the shared tile graph so that concurrent
+     * requests with different crime sets never see each other's weights.
+     */
+    private Map<Edge, Double> weightEdges(List<Edge> edges, String district, List<CrimeReport> nearbyCrimes) {
+        Map<Edge, Double> weights = new HashMap<>(edges.size() * 4 / 3 + 1);
+        int weightCacheHits = 0;
+        for (Edge edge : edges) {
+            if (applyEdgeWeight(edge, district, nearbyCrimes, weights)) {
+                weightCacheHits++;
+            }
+        }
+        metrics.edgesWeighted(edges.size(), weightCacheHits);
+        return weights;
+    }
+
+    private static RouteResponse toResponse(List<Node> path) {
+        List<RouteResponse.Coordinate> route = path.stream()
+            .map(n -> {
+                RouteResponse.Coordinate c = new RouteResponse.Coordinate();
+                c.setLat(n.lat);
+                c.setLng(n.lng);
+                return c;
+            })
+            .collect(Collectors.toList());
+
+        RouteResponse response = new RouteResponse();
+        response.setRoute(route);
+        return response;
+    }
+
+    private Graph timedLoad(String district, String networkType) throws Exception {
+        long start = System.nanoTime();
+        Graph graph = loadGraphIfNeeded(district, networkType);
+        metrics.phase(RouteMetrics.Phase.TILES, System.nanoTime() - start);
+        return graph;
+    }
+
+    private List<CrimeReport> timedCrimeQuery(double minLat, double maxLat, double minLng, double maxLng) {
+        long start = System.nanoTime();
+        List<CrimeReport> nearbyCrimes = crimesWithin(minLat, maxLat, minLng, maxLng);
+        metrics.phase(RouteMetrics.Phase.CRIME_QUERY, System.nanoTime() - start);
+        return nearbyCrimes;
+    }
+
+    private List<CrimeReport> crimesWithin(double minLat, double maxLat, double minLng, double maxLng) {
+        Query query = new Query(
+            Criteria.where("location").within(
+                new org.springframework.data.geo.Box(
+                    new org.springframework.data.geo.Point(minLng, minLat),
+                    new org.springframework.data.geo.Point(maxLng, maxLat)
+                )
+            )
+        );
+        List<CrimeReport> nearbyCrimes = mongoTemplate.find(query, CrimeReport.class);
+        if (writeBehindQueue.isEnabled()) {
+            nearbyCrimes.addAll(writeBehindQueue.pendingWithin(minLat, maxLat, minLng, maxLng, null));
         }
+        return nearbyCrimes;
+    }
+
+    private long lap(RouteMetrics.Phase phase, long phaseStart) {
+        long now = System.nanoTime();
+        metrics.phase(phase, now - phaseStart);
+        return now;
     }
 
     private double getSeverity(String type) {
@@ -275,7 +644,7 @@ public class RouteService {
         return dist;
     }
 
-    private Node findNearestNode(double lat, double lng, Collection<Node> nodes) {
+    Node findNearestNode(double lat, double lng, Collection<Node> nodes) {
         Node nearest = null;
         double minDist = Double.MAX_VALUE;
         for (Node n : nodes) {
@@ -292,7 +661,34 @@ public class RouteService {
     private static final double ALPHA = 10000.0; 
     private static final double BETA = 0.00001; 
 
-    private List<Node> aStar(Node start, Node end) {
+    List<Node> aStar(Node start, Node end, Map<Edge, Double> weights) {
+        return aStar(start, end, weights, NO_DEADLINE);
+    }
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * With null {@code weights} the cost is edge length alone, which needs no crime weights. Returns
+     * null if {@code deadlineNanos} (a System.nanoTime value) passes before the end is reached.
+     */
+    List<Node> aStar(Node start, Node end, Map<Edge, Double> weights, long deadlineNanos) {
+        return aStar(start, end, weights == null ? null : edge -> weights.getOrDefault(edge, 0.0), Set.of(), deadlineNanos, true);
+    }
+
+    /**
+     * A* with crime weights read through {@code risk}, or by distance alone when it is null, never
+     * taking a {@code blocked} edge. Reads the graph without modifying it.
+     */
+    List<Node> aStar(Node start, Node end, ToDoubleFunction<Edge> risk, Set<Edge> blocked, long deadlineNanos) {
+        return aStar(start, end, risk, blocked, deadlineNanos, false);
+    }
+
+    /**
+     * {@code recordSettled} is set only for safest-route searches, so what-if, alternative and debug
+     * runs do not skew the nodes-settled distribution.
+     */
+    private List<Node> aStar(Node start, Node end, ToDoubleFunction<Edge> risk, Set<Edge> blocked,
+                             long deadlineNanos, boolean recordSettled) {
         Map<Node, Double> gScore = new HashMap<>();
         Map<Node, Double> fScore = new HashMap<>(); 
         Map<Node, Node> cameFrom = new HashMap<>();
@@ -301,17 +697,21 @@ public class RouteService {
         gScore.put(start, 0.0);
         fScore.put(start, heuristic(start, end));
         openSet.add(start);
+        int polled = 0;
         while (!openSet.isEmpty()) {
             Node current = openSet.poll();
             if (current == end) break;
+            if (deadlineNanos != NO_DEADLINE && (++polled & 255) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                if (recordSettled) metrics.nodesSettled(closedSet.size());
+                return null;
+            }
             closedSet.add(current);
             for (Edge edge : current.edges) {
                 Node neighbor = edge.to;
-                if (closedSet.contains(neighbor)) continue;
-                double edgeCrime = edge.weight;
+                if (closedSet.contains(neighbor) || blocked.contains(edge)) continue;
                 double edgeDist = edge.length > 0 ? edge.length : calculateEdgeLength(edge);
                 double tentativeG = gScore.getOrDefault(current, Double.POSITIVE_INFINITY)
-                        + (ALPHA * edgeCrime + BETA * edgeDist);
+                        + (risk == null ? edgeDist : ALPHA * risk.applyAsDouble(edge) + BETA * edgeDist);
                 if (tentativeG < gScore.getOrDefault(neighbor, Double.POSITIVE_INFINITY)) {
                     cameFrom.put(neighbor, current);
                     gScore.put(neighbor, tentativeG);
@@ -320,6 +720,7 @@ public class RouteService {
                 }
             }
         }
+        if (recordSettled) metrics.nodesSettled(closedSet.size());
         List<Node> path = new ArrayList<>();
         for (Node at = end; at != null; at = cameFrom.get(at)) {
             path.add(at);
@@ -334,7 +735,7 @@ public class RouteService {
     }
 
     
-    private double calculateEdgeLength(Edge edge) {
+    static double calculateEdgeLength(Edge edge) {
         double length = 0;
         List<double[]> geom = edge.geometry;
         for (int i = 1; i < geom.size(); i++) {
@@ -343,23 +744,8 @@ public class RouteService {
         return length;
     }
 
-    
-    private double edgeLengthFromParsed(Edge edge) {
-        try {
-            java.lang.reflect.Field f = edge.getClass().getDeclaredField("length");
-            f.setAccessible(true);
-            Object val = f.get(edge);
-            if (val instanceof Number) {
-                return ((Number) val).doubleValue();
-            }
-        } catch (Exception ignored) {}
-        return 0;
-    }
-
-    
-    private final Map<Edge, Double> edgeLengthMap = new HashMap<>();
 
-    private double haversine(double lat1, double lon1, double lat2, double lon2) {
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
         double R = 6371000; 
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
@@ -401,155 +787,336 @@ public class RouteService {
         visited.remove(start);
     }
 
+    /**
+     * The safest route between the request's points if the hypothetical crimes had been reported,
+     * the route on current data for comparison, and alternatives. The crimes go into an overlay on
+     * the tiles' risk snapshots, so nothing shared is modified.
+     * <p>
+     * The base route is scored from the same snapshot as the what-if route, so the two compare like
+     * for like. It is not necessarily what /safest returns: /safest weighs only crimes near the
+     * endpoints and may reuse edge weights up to CACHE_DURATION_MINUTES old.
+     */
+    public WhatIfRouteResponse findWhatIfRoute(WhatIfRouteRequest request) {
+        if (request.getCrimes() == null || request.getCrimes().size() > whatIfMaxCrimes) {
+            throw new IllegalArgumentException("Between 0 and " + whatIfMaxCrimes + " hypothetical crimes are allowed");
+        }
+        RiskOverlay overlay = riskOverlay(request.getStartLat(), request.getStartLng(),
+            request.getEndLat(), request.getEndLng(), request.getNetworkType());
+        LocalDateTime now = LocalDateTime.now();
+        List<CrimeReport> crimes = new ArrayList<>();
+        for (WhatIfRouteRequest.HypotheticalCrime c : request.getCrimes()) {
+            crimes.add(hypotheticalCrime(c.getLat(), c.getLng(), c.getType() != null ? c.getType() : "other",
+                c.getTime() != null ? c.getTime() : now));
+        }
+        overlay.add(crimes);
+
+        Node start = findNearestNode(request.getStartLat(), request.getStartLng(), overlay.nodes());
+        Node end = findNearestNode(request.getEndLat(), request.getEndLng(), overlay.nodes());
+        if (start == null || end == null) throw new RuntimeException("No nearby road found");
+
+        List<Node> base = aStar(start, end, overlay::base, Set.of(), NO_DEADLINE);
+        List<Node> path = overlay.delta.isEmpty() ? base : aStar(start, end, overlay::weight, Set.of(), NO_DEADLINE);
+        List<Edge> pathEdges = pathEdges(path);
+
+        WhatIfRouteResponse response = new WhatIfRouteResponse();
+        response.setRoute(toResponse(path).getRoute());
+        response.setRisk(risk(pathEdges, overlay));
+        response.setBaseRoute(toResponse(base).getRoute());
+        response.setBaseRisk(risk(pathEdges(base), overlay));
+        int wanted = Math.max(0, Math.min(request.getAlternatives(), MAX_ALTERNATIVES));
+        for (List<Node> alt : alternatives(start, end, path, pathEdges, overlay, wanted)) {
+            WhatIfRouteResponse.Alternative alternative = new WhatIfRouteResponse.Alternative();
+            alternative.setRoute(toResponse(alt).getRoute());
+            alternative.setRisk(risk(pathEdges(alt), overlay));
+            response.getAlternatives().add(alternative);
+        }
+        response.setEdgesAffected(overlay.delta.size());
+        return response;
+    }
+
     public CrimeRouteDebugResult isCrimeOnRouteWithRoute(double crimeLat, double crimeLng, com.nirapodpoint.backend.model.RouteRequest request) {
-        String district = DistrictUtil.findDistrict(request.getStartLat(), request.getStartLng());
-        if (district == null) throw new RuntimeException("No district found for start point");
-        String networkType = request.getNetworkType();
-        try {
-            loadGraphIfNeeded(district, networkType);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load OSM graph: " + e.getMessage(), e);
+        RiskOverlay overlay = riskOverlay(request.getStartLat(), request.getStartLng(),
+            request.getEndLat(), request.getEndLng(), request.getNetworkType());
+        CrimeReport synthetic = hypotheticalCrime(crimeLat, crimeLng, "debug", LocalDateTime.now());
+        overlay.add(List.of(synthetic));
+
+        Node start = findNearestNode(request.getStartLat(), request.getStartLng(), overlay.nodes());
+        Node end = findNearestNode(request.getEndLat(), request.getEndLng(), overlay.nodes());
+        if (start == null || end == null) throw new RuntimeException("No nearby road found");
+
+        List<Node> path = aStar(start, end, overlay::weight, Set.of(), NO_DEADLINE);
+        List<Edge> pathEdges = pathEdges(path);
+
+        java.util.List<java.util.List<EdgeWeightInfo>> altPaths = new java.util.ArrayList<>();
+        java.util.List<Double> altPathScores = new java.util.ArrayList<>();
+        for (List<Node> alt : alternatives(start, end, path, pathEdges, overlay, 3)) {
+            List<Edge> altEdges = pathEdges(alt);
+            altPaths.add(edgeWeightInfos(altEdges, overlay));
+            altPathScores.add(risk(altEdges, overlay));
         }
-        String key = getGraphKey(district, networkType);
-        Map<Long, Node> nodes = nodeCache.get(key);
-        List<Edge> edges = edgeCache.get(key);
 
-        
-        List<CrimeReport> crimes = crimeReportRepository.findAll();
-        
-        CrimeReport synthetic = new CrimeReport();
-        synthetic.setType("debug");
-        synthetic.setLocation(new org.springframework.data.mongodb.core.geo.GeoJsonPoint(crimeLng, crimeLat));
-        synthetic.setTime(java.time.LocalDateTime.now());
-        crimes.add(synthetic);
+        boolean found = false;
+        for (Edge edge : pathEdges) {
+            if (isCrimeNearEdge(synthetic, edge, 50)) {
+                found = true;
+                break;
+            }
+        }
+        CrimeRouteDebugResult result = new CrimeRouteDebugResult();
+        result.result = found;
+        result.route = toResponse(path).getRoute();
+        result.edgeWeights = edgeWeightInfos(pathEdges, overlay);
+        result.altPaths = altPaths;
+        result.altPathScores = altPathScores;
+        return result;
+    }
 
-    
-        Map<CrimeReport, Double> crimeScores = new HashMap<>();
-        for (CrimeReport crime : crimes) {
-            double severity = getSeverity(crime.getType());
-            double recency = getRecency(crime.getTime(), java.time.LocalDateTime.now());
-            crimeScores.put(crime, severity * recency);
+    private static CrimeReport hypotheticalCrime(double lat, double lng, String type, LocalDateTime time) {
+        CrimeReport crime = new CrimeReport();
+        crime.setType(type);
+        crime.setLocation(new GeoJsonPoint(lng, lat));
+        crime.setTime(time);
+        return crime;
+    }
+
+    /**
+     * Up to {@code max} distinct routes that each avoid one edge of {@code path}. The blocked edges are
+     * spread along the route so the detours leave it in different places.
+     */
+    private List<List<Node>> alternatives(Node start, Node end, List<Node> path, List<Edge> pathEdges,
+                                          RiskOverlay overlay, int max) {
+        List<List<Node>> found = new ArrayList<>();
+        int searches = Math.min(pathEdges.size(), Math.min(max * 3, MAX_ALTERNATIVE_SEARCHES));
+        for (int i = 0; i < searches && found.size() < max; i++) {
+            Edge blocked = pathEdges.get((int) ((i + 0.5) * pathEdges.size() / searches));
+            List<Node> alt = aStar(start, end, overlay::weight, Set.of(blocked), NO_DEADLINE);
+            if (alt.size() > 1 && !alt.equals(path) && !found.contains(alt)) {
+                found.add(alt);
+            }
         }
-        for (Edge edge : edges) {
-            double totalScore = 0;
-            for (CrimeReport crime : crimes) {
-                if (isCrimeNearEdge(crime, edge, 50)) {
-                    totalScore += crimeScores.get(crime);
+        return found;
+    }
+
+    private static List<Edge> pathEdges(List<Node> path) {
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 1; i < path.size(); i++) {
+            Node from = path.get(i - 1);
+            Node to = path.get(i);
+            for (Edge edge : from.edges) {
+                if (edge.to == to) {
+                    edges.add(edge);
+                    break;
                 }
             }
-            edge.weight = totalScore;
-            if (edgeLengthMap.containsKey(edge)) {
-                edge.length = edgeLengthMap.get(edge);
-            } else if (edgeLengthFromParsed(edge) > 0) {
-                edge.length = edgeLengthFromParsed(edge);
-            } else {
-                edge.length = calculateEdgeLength(edge);
+        }
+        return edges;
+    }
+
+    private static double risk(List<Edge> edges, RiskOverlay overlay) {
+        double total = 0;
+        for (Edge edge : edges) {
+            total += overlay.weight(edge);
+        }
+        return total;
+    }
+
+    private static java.util.List<EdgeWeightInfo> edgeWeightInfos(List<Edge> edges, RiskOverlay overlay) {
+        java.util.List<EdgeWeightInfo> infos = new java.util.ArrayList<>();
+        for (Edge edge : edges) {
+            EdgeWeightInfo info = new EdgeWeightInfo();
+            info.fromLat = edge.from.lat;
+            info.fromLng = edge.from.lng;
+            info.toLat = edge.to.lat;
+            info.toLng = edge.to.lng;
+            info.weight = overlay.weight(edge);
+            infos.add(info);
+        }
+        return infos;
+    }
+
+    /**
+     * The crime weight of each of a tile's edges against one version of the crime set, and a grid of
+     * the edges so a point finds the ones within the buffer without scanning the tile. Most edges
+     * have no crime nearby, so only weighted edges have an entry. Shared between queries and never
+     * modified once built.
+     */
+    record RiskSnapshot(Graph graph, long version, long builtAt, Map<Edge, Double> weights, Map<Long, List<Edge>> grid) {}
+
+    /**
+     * Hypothetical crimes on top of the risk snapshots of the tiles a query spans. Adding a crime
+     * touches only the edges within the buffer of it; every other edge reads its snapshot weight.
+     */
+    final class RiskOverlay {
+        final List<RiskSnapshot> snapshots;
+        final Map<Edge, Double> delta = new HashMap<>();
+
+        RiskOverlay(List<RiskSnapshot> snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        void add(List<CrimeReport> crimes) {
+            for (RiskSnapshot snapshot : snapshots) {
+                addCrimeWeights(crimes, snapshot.grid(), delta);
             }
         }
 
-        
-        Node start = findNearestNode(request.getStartLat(), request.getStartLng(), nodes.values());
-        Node end = findNearestNode(request.getEndLat(), request.getEndLng(), nodes.values());
-        if (start == null || end == null) throw new RuntimeException("No nearby road found");
+        double base(Edge edge) {
+            for (RiskSnapshot snapshot : snapshots) {
+                Double weight = snapshot.weights().get(edge);
+                if (weight != null) return weight;
+            }
+            return 0;
+        }
 
-        
-        List<Node> path = aStar(start, end);
+        double weight(Edge edge) {
+            return base(edge) + delta.getOrDefault(edge, 0.0);
+        }
 
-    
-        java.util.List<com.nirapodpoint.backend.model.RouteResponse.Coordinate> polyline = new java.util.ArrayList<>();
-        java.util.List<EdgeWeightInfo> edgeWeights = new java.util.ArrayList<>();
-        java.util.List<Edge> aStarEdges = new java.util.ArrayList<>();
-        for (int i = 0; i < path.size(); i++) {
-            Node n = path.get(i);
-            com.nirapodpoint.backend.model.RouteResponse.Coordinate c = new com.nirapodpoint.backend.model.RouteResponse.Coordinate();
-            c.setLat(n.lat);
-            c.setLng(n.lng);
-            polyline.add(c);
-            if (i > 0) {
-                Node from = path.get(i-1);
-                Node to = n;
-                for (Edge edge : from.edges) {
-                    if (edge.to == to) {
-                        EdgeWeightInfo info = new EdgeWeightInfo();
-                        info.fromLat = from.lat;
-                        info.fromLng = from.lng;
-                        info.toLat = to.lat;
-                        info.toLng = to.lng;
-                        info.weight = edge.weight;
-                        edgeWeights.add(info);
-                        aStarEdges.add(edge);
-                        break;
-                    }
-                }
+        Collection<Node> nodes() {
+            if (snapshots.size() == 1) return snapshots.get(0).graph().nodes().values();
+            List<Node> nodes = new ArrayList<>();
+            for (RiskSnapshot snapshot : snapshots) {
+                nodes.addAll(snapshot.graph().nodes().values());
             }
+            return nodes;
         }
+    }
 
-        
-        java.util.List<java.util.List<EdgeWeightInfo>> altPaths = new java.util.ArrayList<>();
-        java.util.List<Double> altPathScores = new java.util.ArrayList<>();
-        int altCount = 0;
-        for (int blockIdx = 0; blockIdx < aStarEdges.size() && altCount < 3; blockIdx++) {
-            Edge blockedEdge = aStarEdges.get(blockIdx);
-            
-            blockedEdge.from.edges.remove(blockedEdge);
-            List<Node> altPath = aStar(start, end);
-            
-            blockedEdge.from.edges.add(blockedEdge);
-            
-            if (altPath.size() > 1 && !altPath.equals(path)) {
-                java.util.List<EdgeWeightInfo> altEdgeWeights = new java.util.ArrayList<>();
-                double totalScore = 0.0;
-                for (int i = 1; i < altPath.size(); i++) {
-                    Node from = altPath.get(i-1);
-                    Node to = altPath.get(i);
-                    for (Edge edge : from.edges) {
-                        if (edge.to == to) {
-                            EdgeWeightInfo info = new EdgeWeightInfo();
-                            info.fromLat = from.lat;
-                            info.fromLng = from.lng;
-                            info.toLat = to.lat;
-                            info.toLng = to.lng;
-                            info.weight = edge.weight;
-                            altEdgeWeights.add(info);
-                            totalScore += edge.weight;
-                            break;
-                        }
-                    }
+    RiskOverlay riskOverlay(double startLat, double startLng, double endLat, double endLng, String networkType) {
+        String startDistrict = DistrictUtil.findDistrict(startLat, startLng);
+        String endDistrict = DistrictUtil.findDistrict(endLat, endLng);
+        if (startDistrict == null || endDistrict == null)
+            throw new RuntimeException("No district found for points");
+        try {
+            List<RiskSnapshot> snapshots = new ArrayList<>();
+            snapshots.add(riskSnapshot(startDistrict, networkType));
+            if (!startDistrict.equals(endDistrict)) {
+                snapshots.add(riskSnapshot(endDistrict, networkType));
+            }
+            return new RiskOverlay(snapshots);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load OSM graph: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The tile's snapshot, rebuilt when the crime set has changed since or recency has moved on.
+     * Concurrent queries for a stale tile wait on the one rebuild that won the swap, and accept its
+     * result as long as it is at least as new as the crime set they started with.
+     */
+    RiskSnapshot riskSnapshot(String district, String networkType) throws Exception {
+        Graph graph = loadGraphIfNeeded(district, networkType);
+        String key = getGraphKey(district, networkType);
+        long wanted = riskVersion.current();
+        while (true) {
+            CompletableFuture<RiskSnapshot> existing = riskSnapshots.get(key);
+            RiskSnapshot current = null;
+            if (existing != null) {
+                try {
+                    current = existing.get();
+                } catch (ExecutionException e) {
+                    // The builder has already removed its failed future; surface the failure to its waiters.
+                    throw e.getCause() instanceof Exception cause ? cause : e;
                 }
-            
-                boolean isDuplicate = false;
-                for (java.util.List<EdgeWeightInfo> existing : altPaths) {
-                    if (existing.equals(altEdgeWeights)) { isDuplicate = true; break; }
+                if (current.graph() == graph && current.version() >= wanted
+                        && System.currentTimeMillis() - current.builtAt() < TimeUnit.MINUTES.toMillis(CACHE_DURATION_MINUTES)) {
+                    return current;
                 }
-                if (!isDuplicate) {
-                    altPaths.add(altEdgeWeights);
-                    altPathScores.add(totalScore);
-                    altCount++;
+            }
+            CompletableFuture<RiskSnapshot> mine = new CompletableFuture<>();
+            boolean claimed = existing == null
+                ? riskSnapshots.putIfAbsent(key, mine) == null
+                : riskSnapshots.replace(key, existing, mine);
+            if (!claimed) continue;
+            try {
+                long version = riskVersion.current();
+                Map<Long, List<Edge>> grid = current != null && current.graph() == graph
+                    ? current.grid() : buildEdgeGrid(graph.edges());
+                RiskSnapshot built = new RiskSnapshot(graph, version, System.currentTimeMillis(),
+                    tileCrimeWeights(graph, grid), grid);
+                mine.complete(built);
+                return built;
+            } catch (Exception | Error e) {
+                riskSnapshots.remove(key, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private Map<Edge, Double> tileCrimeWeights(Graph graph, Map<Long, List<Edge>> grid) {
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (Node node : graph.nodes().values()) {
+            minLat = Math.min(minLat, node.lat);
+            maxLat = Math.max(maxLat, node.lat);
+            minLng = Math.min(minLng, node.lng);
+            maxLng = Math.max(maxLng, node.lng);
+        }
+        Map<Edge, Double> weights = new HashMap<>();
+        if (minLat > maxLat) return weights;
+        // A whole-tile rebuild, not part of any one request, so it stays out of the CRIME_QUERY timer.
+        List<CrimeReport> crimes = crimesWithin(minLat - GRID_CELL_DEGREES, maxLat + GRID_CELL_DEGREES,
+            minLng - GRID_CELL_DEGREES, maxLng + GRID_CELL_DEGREES);
+        addCrimeWeights(crimes, grid, weights);
+        return weights;
+    }
+
+    /**
+     * Adds each crime's score to the edges within the buffer of it, the same sum calculateEdgeWeight
+     * makes per edge, but visiting only the edges in the crime's grid cell.
+     */
+    private void addCrimeWeights(List<CrimeReport> crimes, Map<Long, List<Edge>> grid, Map<Edge, Double> into) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CrimeReport crime : crimes) {
+            List<Edge> candidates = grid.get(gridCell(crime.getLocation().getY(), crime.getLocation().getX()));
+            if (candidates == null) continue;
+            double score = getSeverity(crime.getType()) * getRecency(crime.getTime(), now);
+            for (Edge edge : candidates) {
+                if (isCrimeNearEdge(crime, edge, CRIME_BUFFER_METERS)) {
+                    into.merge(edge, score, Double::sum);
                 }
             }
         }
+    }
 
-        
-        boolean found = false;
-        for (int i = 1; i < path.size(); i++) {
-            Node from = path.get(i-1);
-            Node to = path.get(i);
-            for (Edge edge : from.edges) {
-                if (edge.to == to) {
-                    if (isCrimeNearEdge(synthetic, edge, 50)) {
-                        found = true;
-                        break;
-                    }
+    /**
+     * Buckets every edge into each grid cell its geometry comes within the buffer of.
+     */
+    static Map<Long, List<Edge>> buildEdgeGrid(List<Edge> edges) {
+        Map<Long, List<Edge>> grid = new HashMap<>();
+        double latMargin = CRIME_BUFFER_METERS / 111_320.0;
+        for (Edge edge : edges) {
+            if (edge.geometry.size() < 2) continue;
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+            for (double[] p : edge.geometry) {
+                minLat = Math.min(minLat, p[0]);
+                maxLat = Math.max(maxLat, p[0]);
+                minLng = Math.min(minLng, p[1]);
+                maxLng = Math.max(maxLng, p[1]);
+            }
+            double lngMargin = latMargin / Math.cos(Math.toRadians((minLat + maxLat) / 2));
+            for (long i = cellIndex(minLat - latMargin); i <= cellIndex(maxLat + latMargin); i++) {
+                for (long j = cellIndex(minLng - lngMargin); j <= cellIndex(maxLng + lngMargin); j++) {
+                    grid.computeIfAbsent(cellKey(i, j), k -> new ArrayList<>()).add(edge);
                 }
             }
-            if (found) break;
         }
-        CrimeRouteDebugResult result = new CrimeRouteDebugResult();
-        result.result = found;
-        result.route = polyline;
-        result.edgeWeights = edgeWeights;
-        result.altPaths = altPaths;
-        result.altPathScores = altPathScores;
-        return result;
+        return grid;
+    }
+
+    static long gridCell(double lat, double lng) {
+        return cellKey(cellIndex(lat), cellIndex(lng));
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / GRID_CELL_DEGREES);
+    }
+
+    private static long cellKey(long latCell, long lngCell) {
+        return (latCell << 32) ^ (lngCell & 0xffffffffL);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.RouteResponse;
+
+import java.io.IOException;
+
+/**
+ * Receives the stages of a streamed route. An IOException from any callback (the client went away)
+ * stops the computation.
+ */
+public interface RouteStreamListener {
+    void progress(String stage) throws IOException;
+
+    /**
+     * Shortest-distance route over the road graph, sent before crime data is applied.
+     */
+    void approximate(RouteResponse route) throws IOException;
+
+    /**
+     * The final route: risk-weighted when {@code complete}, otherwise the best route found before the
+     * time budget ran out.
+     */
+    void route(RouteResponse route, boolean complete) throws IOException;
+}
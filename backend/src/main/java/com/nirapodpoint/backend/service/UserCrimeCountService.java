@@ -0,0 +1,101 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.UserCrimeCount;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class UserCrimeCountService implements CrimeReportListener {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${crimes.user-counters.enabled:false}")
+    private boolean countersEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (countersEnabled) rebuildCounters();
+    }
+
+    public Map<String, Long> countsByReporter() {
+        Map<String, Long> counts = new HashMap<>();
+        if (countersEnabled) {
+            Query query = new Query(Criteria.where("count").gt(0));
+            for (UserCrimeCount c : mongoTemplate.find(query, UserCrimeCount.class)) {
+                counts.put(c.getReporter(), c.getCount());
+            }
+        } else {
+            for (Document d : aggregateCounts()) {
+                counts.put(d.getString("_id"), ((Number) d.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    // Sorting on reporter first lets the group walk the reporter index without fetching documents.
+    private List<Document> aggregateCounts() {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("reporter").ne(null)),
+            Aggregation.sort(Sort.Direction.ASC, "reporter"),
+            Aggregation.project("reporter").andExclude("_id"),
+            Aggregation.group("reporter").count().as("count")
+        );
+        return mongoTemplate.aggregate(aggregation, "crime_reports", Document.class).getMappedResults();
+    }
+
+    public void rebuildCounters() {
+        mongoTemplate.remove(new Query(), UserCrimeCount.class);
+        List<Document> counts = aggregateCounts();
+        if (counts.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCrimeCount.class);
+        for (Document d : counts) {
+            bulk.upsert(new Query(Criteria.where("_id").is(d.getString("_id"))),
+                new Update().set("count", ((Number) d.get("count")).longValue()));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void onCrimeAdded(CrimeReport crime) {
+        increment(crime.getReporter(), 1);
+    }
+
+    @Override
+    public void onCrimeRemoved(CrimeReport crime) {
+        increment(crime.getReporter(), -1);
+    }
+
+    @Override
+    public void onCrimesAdded(List<CrimeReport> crimes) {
+        if (!countersEnabled) return;
+        Map<String, Long> deltas = new HashMap<>();
+        for (CrimeReport crime : crimes) {
+            if (crime.getReporter() != null) deltas.merge(crime.getReporter(), 1L, Long::sum);
+        }
+        if (deltas.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCrimeCount.class);
+        deltas.forEach((reporter, delta) ->
+            bulk.upsert(new Query(Criteria.where("_id").is(reporter)), new Update().inc("count", delta)));
+        bulk.execute();
+    }
+
+    private void increment(String reporter, long delta) {
+        if (!countersEnabled || reporter == null) return;
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(reporter)), new Update().inc("count", delta), UserCrimeCount.class);
+    }
+}
@@ -2,27 +2,41 @@ package com.nirapodpoint.backend.service;
 
 import com.nirapodpoint.backend.model.User;
 import com.nirapodpoint.backend.repository.UserRepository;
+import com.nirapodpoint.backend.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Base64;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Random;
-import java.time.Instant;
-import java.time.Duration;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.List;
 
 @Service
 public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private final ConcurrentHashMap<String, OtpInfo> otpMap = new ConcurrentHashMap<>();
-    private final Random random = new Random();
-    private static final int OTP_EXPIRY_MINUTES = 5;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final SecureRandom random = new SecureRandom();
 
     public User registerUser(String name, String email, String phone, String password, MultipartFile nidFront, MultipartFile nidBack, String photo) throws IOException {
         String cleanEmail = email.trim().toLowerCase();
@@ -37,12 +51,96 @@ public class UserService {
         user.setName(name);
         user.setEmail(cleanEmail);
         user.setPhone(cleanPhone);
-        user.setPassword(passwordEncoder.encode(password));
-        user.setNidFront(Base64.getEncoder().encodeToString(nidFront.getBytes()));
-        user.setNidBack(Base64.getEncoder().encodeToString(nidBack.getBytes()));
-        user.setPhoto(photo);
+        user.setPassword(passwordHashing.encode(password));
         user.setVerified(false);
-        return userRepository.save(user);
+        try {
+            user.setNidFrontBlobId(storeUpload(nidFront, "nid-front"));
+            user.setNidBackBlobId(storeUpload(nidBack, "nid-back"));
+            if (photo != null && !photo.isEmpty()) {
+                user.setPhotoBlobId(blobStore.storeDataUrl(photo, "photo", "image/png"));
+            }
+            return userRepository.save(user);
+        } catch (IOException | RuntimeException e) {
+            deleteBlobs(user);
+            throw e;
+        }
+    }
+
+    private String storeUpload(MultipartFile file, String name) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return blobStore.store(in, name, file.getContentType() != null ? file.getContentType() : "image/jpeg");
+        }
+    }
+
+    public User updateProfile(User principal, String name, String email, String phone, String photoDataUrl) {
+        // Edit a fresh copy so a failed save leaves neither the principal nor the stored user half-changed.
+        User user = userRepository.findById(principal.getId())
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        String previousEmail = principal.getEmail();
+        String previousPhoto = null;
+        // Only update fields that are present (not null) in the request
+        if (name != null) user.setName(name);
+        if (email != null) user.setEmail(email);
+        if (phone != null) user.setPhone(phone);
+        if (photoDataUrl != null && !photoDataUrl.isEmpty()) {
+            previousPhoto = user.getPhotoBlobId();
+            user.setPhotoBlobId(blobStore.storeDataUrl(photoDataUrl, "photo", "image/png"));
+        }
+        User saved = userRepository.save(user);
+        blobStore.delete(previousPhoto);
+        principalCache.invalidate(previousEmail);
+        principalCache.invalidate(saved.getEmail());
+        return saved;
+    }
+
+    public void deleteBlobs(User user) {
+        blobStore.delete(user.getNidFrontBlobId());
+        blobStore.delete(user.getNidBackBlobId());
+        blobStore.delete(user.getPhotoBlobId());
+    }
+
+    public static class UserPage {
+        public List<User> items;
+        public long total;
+        public String nextCursor;
+    }
+
+    public UserPage listUsers(String verified, int page, int size, String order, String cursor) {
+        if (page < 0 || size < 1 || size > 500) throw new IllegalArgumentException("Invalid page or size");
+        Query query = new Query();
+        if ("true".equals(verified) || "false".equals(verified)) {
+            query.addCriteria(Criteria.where("isVerified").is(Boolean.parseBoolean(verified)));
+        }
+        UserPage result = new UserPage();
+        result.total = query.getQueryObject().isEmpty()
+            ? mongoTemplate.estimatedCount(User.class)
+            : mongoTemplate.count(query, User.class);
+
+        Sort.Direction direction = "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        query.with(Sort.by(direction, "createdAt").and(Sort.by(direction, "id")));
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            query.addCriteria(direction == Sort.Direction.ASC
+                ? new Criteria().orOperator(
+                    Criteria.where("createdAt").gt(position.time),
+                    Criteria.where("createdAt").is(position.time).and("id").gt(position.id))
+                : new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(position.time),
+                    Criteria.where("createdAt").is(position.time).and("id").lt(position.id)));
+        } else {
+            query.skip((long) page * size);
+        }
+        query.limit(size);
+        query.fields().include("name").include("email").include("phone").include("isVerified").include("isAdmin")
+            .include("createdAt").include("photoBlobId").include("nidFrontBlobId").include("nidBackBlobId");
+        result.items = mongoTemplate.find(query, User.class);
+        if (result.items.size() == size) {
+            User last = result.items.get(size - 1);
+            if (last.getCreatedAt() != null) {
+                result.nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+            }
+        }
+        return result;
     }
 
     public User authenticateUser(String emailOrPhone, String password) {
@@ -55,7 +153,7 @@ public class UserService {
             user = userRepository.findByPhone(query)
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
         }
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashing.matches(password, user.getPassword())) {
             throw new IllegalArgumentException("Invalid credentials");
         }
         return user;
@@ -64,48 +162,38 @@ public class UserService {
         User user = userRepository.findByEmail(email.trim().toLowerCase()).orElse(null);
         if (user == null) throw new IllegalArgumentException("No user found with this email");
         String otp = String.format("%06d", random.nextInt(1000000));
-        otpMap.put(email, new OtpInfo(otp, Instant.now().plus(Duration.ofMinutes(OTP_EXPIRY_MINUTES))));
+        otpStore.put(email, otp);
         mailService.sendPasswordResetOtpEmail(email, user.getName(), otp);
         return otp;
     }
 
     public boolean verifyOtp(String email, String otp) {
-        OtpInfo info = otpMap.get(email);
-        if (info == null) return false;
-        if (Instant.now().isAfter(info.expiry)) {
-            otpMap.remove(email);
-            return false;
-        }
-        boolean valid = info.otp.equals(otp);
-        if (valid) otpMap.remove(email);
-        return valid;
+        return otpStore.verify(email, otp);
     }
 
     public void resetPasswordWithOtp(String email, String otp, String newPassword) {
         if (!verifyOtp(email, otp)) throw new IllegalArgumentException("Invalid or expired OTP");
         User user = userRepository.findByEmail(email.trim().toLowerCase()).orElse(null);
         if (user == null) throw new IllegalArgumentException("No user found with this email");
-        if (passwordEncoder.matches(newPassword, user.getPassword())) {
+        if (passwordHashing.matches(newPassword, user.getPassword())) {
             throw new IllegalArgumentException("New password cannot be the same as the old password.");
         }
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashing.encode(newPassword));
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
     }
 
-    public void changePassword(User user, String currentPassword, String newPassword) {
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+    public void changePassword(User principal, String currentPassword, String newPassword) {
+        User user = userRepository.findById(principal.getId())
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!passwordHashing.matches(currentPassword, user.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
         }
-        if (passwordEncoder.matches(newPassword, user.getPassword())) {
+        if (passwordHashing.matches(newPassword, user.getPassword())) {
             throw new IllegalArgumentException("New password cannot be the same as the old password.");
         }
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashing.encode(newPassword));
         userRepository.save(user);
-    }
-
-    private static class OtpInfo {
-        String otp;
-        Instant expiry;
-        OtpInfo(String otp, Instant expiry) { this.otp = otp; this.expiry = expiry; }
+        principalCache.invalidate(user.getEmail());
     }
 } 
\ No newline at end of file
@@ -3,7 +3,7 @@ package com.nirapodpoint.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "blobs.url-signing-key=test-blob-signing-key-0123456789abcdef")
 class BackendApplicationTests {
 
 	@Test
@@ -0,0 +1,51 @@
+package com.nirapodpoint.backend.security;
+
+import com.nirapodpoint.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PrincipalCacheTest {
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId("u-" + email);
+        user.setEmail(email);
+        user.setName("Rahim");
+        user.setPassword("hash");
+        user.setVerified(true);
+        return user;
+    }
+
+    @Test
+    void changesToAHandedOutPrincipalDoNotReachTheCache() {
+        PrincipalCache cache = new PrincipalCache(10, 300);
+        User stored = user("a@example.com");
+        cache.put("a@example.com", stored);
+        stored.setName("changed before the next request");
+
+        User first = cache.get("a@example.com");
+        first.setPassword("mutated by a failed save");
+
+        User second = cache.get("a@example.com");
+        assertNotSame(first, second);
+        assertEquals("Rahim", second.getName());
+        assertEquals("hash", second.getPassword());
+        assertEquals(true, second.isVerified());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        PrincipalCache cache = new PrincipalCache(2, 300);
+        cache.put("a", user("a"));
+        cache.put("b", user("b"));
+        cache.get("a");
+        cache.put("c", user("c"));
+
+        assertNull(cache.get("b"));
+        assertEquals("a", cache.get("a").getEmail());
+        assertEquals("c", cache.get("c").getEmail());
+    }
+}
@@ -0,0 +1,50 @@
+package com.nirapodpoint.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static RateLimiter limiter(int maxBuckets) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxBuckets(maxBuckets);
+        return new RateLimiter(properties);
+    }
+
+    @Test
+    void allowsTheBurstThenAsksTheClientToWait() {
+        RateLimiter limiter = limiter(10);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("user:a", 60, 3));
+        }
+        long wait = limiter.tryAcquire("user:a", 60, 3);
+        assertTrue(wait > 0 && wait <= 1_000_000_000L, "about one second at 60/min, was " + wait);
+        assertEquals(0, limiter.tryAcquire("user:b", 60, 3), "other clients have their own bucket");
+    }
+
+    @Test
+    void aFullTableStillMetersNewClients() throws InterruptedException {
+        RateLimiter limiter = limiter(2);
+        limiter.tryAcquire("ip:old", 1, 1);
+        Thread.sleep(2);
+        limiter.tryAcquire("ip:recent", 1, 1);
+
+        assertEquals(0, limiter.tryAcquire("ip:new", 1, 1));
+        assertTrue(limiter.tryAcquire("ip:new", 1, 1) > 0, "a newcomer must not bypass the limit");
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.tryAcquire("ip:recent", 1, 1) > 0, "the recently used bucket was kept");
+    }
+
+    @Test
+    void sweepDropsOnlyBucketsThatHaveRefilled() throws InterruptedException {
+        RateLimiter limiter = limiter(10);
+        limiter.tryAcquire("fast", 60_000, 1);
+        limiter.tryAcquire("slow", 1, 1);
+        Thread.sleep(5);
+        limiter.sweep();
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("slow", 1, 1) > 0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.nirapodpoint.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CostLimiterTest {
+
+    @Test
+    void rejectsWhatDoesNotFitAndReleasesOnClose() {
+        CostLimiter limiter = new CostLimiter(new SimpleMeterRegistry(), 10);
+        CostLimiter.Permit first = limiter.acquire(6);
+        assertThrows(CostLimiter.OverloadedException.class, () -> limiter.acquire(5));
+        try (CostLimiter.Permit second = limiter.acquire(4)) {
+            assertEquals(10, limiter.inUse());
+        }
+        first.close();
+        first.close();
+        assertEquals(0, limiter.inUse());
+    }
+
+    @Test
+    void oversizedRequestRunsAloneOnAnIdleNode() {
+        CostLimiter limiter = new CostLimiter(new SimpleMeterRegistry(), 10);
+        try (CostLimiter.Permit permit = limiter.acquire(1_000)) {
+            assertEquals(10, limiter.inUse());
+            assertThrows(CostLimiter.OverloadedException.class, () -> limiter.acquire(1));
+        }
+        assertEquals(0, limiter.inUse());
+    }
+}
@@ -0,0 +1,128 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CrimeAnalyticsCubeTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(2015, 1, 1);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CrimeAnalyticsCube cube = new CrimeAnalyticsCube();
+
+    CrimeAnalyticsCubeTest() {
+        ReflectionTestUtils.setField(cube, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(cube, "epoch", EPOCH);
+    }
+
+    private static CrimeReport crime(String id, String type, LocalDateTime time) {
+        CrimeReport crime = new CrimeReport();
+        crime.setId(id);
+        crime.setType(type);
+        crime.setDistrict("Dhaka");
+        crime.setTime(time);
+        return crime;
+    }
+
+    @Test
+    void fenwickRangesAndHourBucketsMatchABruteForceCount() {
+        Random random = new Random(11);
+        // Past the initial 1024 slots, so the tree is grown and rebuilt from the hour buckets mid-way.
+        int days = 3000;
+        long[][] counts = new long[days][24];
+        CrimeAnalyticsCube.Series series = new CrimeAnalyticsCube.Series();
+        for (int i = 0; i < 20_000; i++) {
+            int day = random.nextInt(i < 5_000 ? 1000 : days);
+            int hour = random.nextInt(24);
+            int delta = counts[day][hour] > 0 && random.nextInt(5) == 0 ? -1 : 1;
+            counts[day][hour] += delta;
+            series.add(day, hour, delta);
+        }
+
+        for (int q = 0; q < 2_000; q++) {
+            int a = random.nextInt(days), b = random.nextInt(days);
+            int from = Math.min(a, b), to = Math.max(a, b);
+            long expected = 0;
+            long[] expectedHours = new long[24];
+            for (int d = from; d <= to; d++) {
+                for (int h = 0; h < 24; h++) {
+                    expected += counts[d][h];
+                    expectedHours[h] += counts[d][h];
+                }
+            }
+            assertEquals(expected, series.range(from, to), "days " + from + ".." + to);
+            long[] hours = new long[24];
+            series.addHours(from, to, hours);
+            assertArrayEquals(expectedHours, hours, "days " + from + ".." + to);
+        }
+        // A range reaching past the last recorded day is clamped to the tree.
+        assertEquals(series.range(0, days - 1), series.range(0, days * 4));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deltasDuringTheBuildAreReconciledAndTheStreamHoldsNoLock() {
+        LocalDateTime t = LocalDateTime.of(2024, 3, 10, 21, 30);
+        CrimeReport seen = crime("a", "theft", t);
+        CrimeReport removedAfterSeen = crime("b", "theft", t);
+        CrimeReport late = crime("c", "murder", t);
+        CrimeReport transient_ = crime("d", "theft", t);
+        CrimeReport removedBeforeSeen = crime("e", "theft", t);
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.of(seen, removedAfterSeen)
+            .peek(crime -> {
+                if (crime != removedAfterSeen) return;
+                // From another thread, so this would hang if the stream ran under the cube's lock.
+                CompletableFuture.runAsync(() -> {
+                    cube.onCrimeAdded(seen);
+                    cube.onCrimeRemoved(removedAfterSeen);
+                    cube.onCrimesAdded(List.of(late, transient_));
+                    cube.onCrimeRemoved(transient_);
+                    cube.onCrimeRemoved(removedBeforeSeen);
+                }).orTimeout(5, TimeUnit.SECONDS).join();
+            }));
+
+        assertTrue(cube.build());
+
+        Map<String, Object> result = cube.query(t.toLocalDate(), t.toLocalDate(), null, null, true);
+        assertEquals(2L, result.get("total"));
+        assertEquals(Map.of("theft", 1L, "murder", 1L), result.get("byType"));
+        List<Map<String, Object>> byHour = (List<Map<String, Object>>) result.get("byHour");
+        assertEquals(2L, byHour.get(21).get("count"));
+    }
+
+    @Test
+    void queriesBeforeTheFirstBuildAreTurnedAwayWhileItRunsInTheBackground() throws InterruptedException {
+        LocalDateTime t = LocalDateTime.of(2024, 3, 10, 8, 0);
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class)))
+            .thenAnswer(inv -> Stream.of(crime("a", "theft", t)));
+
+        assertThrows(CrimeAnalyticsCube.NotReadyException.class,
+            () -> cube.query(t.toLocalDate(), t.toLocalDate(), null, null, false));
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (ReflectionTestUtils.getField(cube, "cube") == null && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1L, cube.query(t.toLocalDate(), t.toLocalDate(), "dhaka", "theft", false).get("total"));
+        cube.shutdown();
+    }
+}
@@ -0,0 +1,109 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CrimeClusterIndexTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CrimeClusterIndex index = new CrimeClusterIndex();
+
+    CrimeClusterIndexTest() {
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(index, "maxClusterZoom", 14);
+        ReflectionTestUtils.setField(index, "cellPixels", 64);
+        ReflectionTestUtils.setField(index, "maxCells", 4096);
+    }
+
+    private static CrimeReport crime(String id, String type, double lat, double lng) {
+        CrimeReport crime = new CrimeReport();
+        crime.setId(id);
+        crime.setType(type);
+        crime.setLocation(new GeoJsonPoint(lng, lat));
+        return crime;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> onlyCluster(String type) {
+        List<Map<String, Object>> clusters = (List<Map<String, Object>>)
+            index.getClusters(23.0, 24.5, 89.5, 91.0, 5, type).get("clusters");
+        assertEquals(1, clusters.size());
+        return clusters.get(0);
+    }
+
+    @Test
+    void filteredClusterSitsOverTheCrimesOfThatType() {
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.of(
+            crime("a", "theft", 23.70, 90.40),
+            crime("b", "theft", 23.72, 90.42),
+            crime("c", "murder", 23.90, 90.30)));
+        assertTrue(index.build());
+
+        Map<String, Object> theft = onlyCluster("theft");
+        assertEquals(2, theft.get("count"));
+        assertEquals(23.71, (double) theft.get("lat"), 1e-9);
+        assertEquals(90.41, (double) theft.get("lng"), 1e-9);
+
+        Map<String, Object> all = onlyCluster(null);
+        assertEquals(3, all.get("count"));
+        assertEquals("theft", all.get("dominantType"));
+        assertEquals((23.70 + 23.72 + 23.90) / 3, (double) all.get("lat"), 1e-9);
+    }
+
+    @Test
+    void deltasDuringTheBuildAreReconciledAndTheStreamHoldsNoLock() {
+        CrimeReport seen = crime("a", "theft", 23.70, 90.40);
+        CrimeReport removedAfterSeen = crime("b", "theft", 23.70, 90.40);
+        CrimeReport late = crime("c", "theft", 23.70, 90.40);
+        CrimeReport transient_ = crime("d", "theft", 23.70, 90.40);
+        CrimeReport removedBeforeSeen = crime("e", "theft", 23.70, 90.40);
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.of(seen, removedAfterSeen)
+            .peek(crime -> {
+                if (crime != removedAfterSeen) return;
+                // From another thread, so this would hang if the stream ran under the index lock.
+                CompletableFuture.runAsync(() -> {
+                    index.onCrimeAdded(seen);
+                    index.onCrimeRemoved(removedAfterSeen);
+                    index.onCrimesAdded(List.of(late, transient_));
+                    index.onCrimeRemoved(transient_);
+                    index.onCrimeRemoved(removedBeforeSeen);
+                }).orTimeout(5, TimeUnit.SECONDS).join();
+            }));
+
+        assertTrue(index.build());
+
+        assertEquals(2, onlyCluster(null).get("count"), "a and c");
+    }
+
+    @Test
+    void queriesBeforeTheFirstBuildAreTurnedAwayWhileItRunsInTheBackground() throws InterruptedException {
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class)))
+            .thenAnswer(inv -> Stream.of(crime("a", "theft", 23.70, 90.40)));
+
+        assertThrows(CrimeClusterIndex.NotReadyException.class,
+            () -> index.getClusters(23.0, 24.5, 89.5, 91.0, 5, null));
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (ReflectionTestUtils.getField(index, "levels") == null && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1, onlyCluster(null).get("count"));
+        index.shutdown();
+    }
+}
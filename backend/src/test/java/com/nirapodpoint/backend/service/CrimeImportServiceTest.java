@@ -0,0 +1,55 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CrimeImportServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void quotedCsvFieldsMaySpanLines() throws Exception {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class)).thenReturn(ops);
+        List<CrimeReport> inserted = new ArrayList<>();
+        // The service reuses its batch list, so copy what each insert was given.
+        when(ops.insert(anyList())).thenAnswer(inv -> {
+            inserted.addAll(inv.getArgument(0));
+            return ops;
+        });
+        CrimeImportService service = new CrimeImportService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "listeners", List.of());
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+        // The layout CrimeExportService writes: a description with a newline, a comma and quotes.
+        String csv = "id,type,lat,lng,time,description,reporter,district\n"
+            + "1,theft,23.75,90.39,2024-01-01T10:00,\"first line\n"
+            + "second, with \"\"quotes\"\"\",u1,Dhaka\n"
+            + "2,theft,north,90.39,2024-01-01T10:00,,u1,Dhaka\n"
+            + "3,murder,23.76,90.40,2024-01-02T11:00,plain,u1,Dhaka\n";
+
+        Map<String, Object> result = service.importCrimes(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CrimeDataFormat.CSV, "admin");
+
+        assertEquals(2L, result.get("imported"));
+        assertEquals("first line\nsecond, with \"quotes\"", inserted.get(0).getDescription());
+        assertEquals("plain", inserted.get(1).getDescription());
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals(4L, errors.get(0).get("line"), "line numbers count physical lines");
+    }
+}
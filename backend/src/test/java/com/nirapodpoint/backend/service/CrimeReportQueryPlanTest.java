@@ -0,0 +1,147 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.nirapodpoint.backend.config.MongoConfig;
+import com.nirapodpoint.backend.model.CrimeReport;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the crime list queries against a real server, since the plans depend on the 2dsphere and
+ * compound indexes. Uses {@code MONGODB_TEST_URI} when set and an embedded mongod otherwise.
+ */
+class CrimeReportQueryPlanTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        String uri = System.getenv("MONGODB_TEST_URI");
+        if (uri == null || uri.isBlank()) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            uri = "mongodb://" + mongod.current().getServerAddress();
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, "nirapodpoint_query_plan_test");
+        mongoTemplate.dropCollection(CrimeReport.class);
+        MongoConfig.ensureCrimeReportIndexes(mongoTemplate);
+
+        String[] types = {"theft", "robbery", "assault", "harassment"};
+        List<CrimeReport> crimes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CrimeReport crime = new CrimeReport();
+            crime.setType(types[i % types.length]);
+            crime.setLocation(new GeoJsonPoint(90.35 + (i % 20) * 0.01, 23.70 + (i / 20) * 0.01));
+            crime.setTime(LocalDateTime.now().minusHours(i));
+            crime.setReporter("reporter" + (i % 5));
+            crimes.add(crime);
+        }
+        for (int i = 0; i < 5; i++) {
+            CrimeReport undated = new CrimeReport();
+            undated.setType("theft");
+            undated.setLocation(new GeoJsonPoint(90.40, 23.75));
+            crimes.add(undated);
+        }
+        mongoTemplate.insertAll(crimes);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (client != null) {
+            mongoTemplate.getDb().drop();
+            client.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @Test
+    void typeFilterUsesIndex() {
+        Query query = CrimeReportService.crimeFilter("Theft", null, null, null, null);
+        query.with(Sort.by(Sort.Direction.DESC, "time"));
+        assertIndexBacked(query);
+    }
+
+    @Test
+    void boundsAndTypeFilterUsesIndex() {
+        Query query = CrimeReportService.crimeFilter("robbery", 23.70, 23.80, 90.35, 90.45);
+        assertIndexBacked(query);
+    }
+
+    @Test
+    void boundsFilterUsesIndex() {
+        Query query = CrimeReportService.crimeFilter("all", 23.70, 23.80, 90.35, 90.45);
+        assertIndexBacked(query);
+    }
+
+    @Test
+    void cursorPagingReachesCrimesWithoutTime() {
+        CrimeReportService service = new CrimeReportService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            CrimeReportService.CrimePage page = service.getCrimeReports("all", 0, 7, null, null, null, null,
+                    cursor == null ? "" : cursor, null);
+            page.items.forEach(crime -> assertTrue(seen.add(crime.getId()), "Repeated " + crime.getId()));
+            cursor = page.nextCursor;
+        } while (cursor != null);
+        assertEquals(205, seen.size());
+    }
+
+    private void assertIndexBacked(Query query) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntity(CrimeReport.class);
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+
+        Document explain = mongoTemplate.getCollection("crime_reports")
+                .find(filter)
+                .sort(sort)
+                .explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+
+        assertTrue(stages.contains("IXSCAN"), "Expected an index scan but plan was " + stages);
+        assertFalse(stages.contains("COLLSCAN"), "Unexpected collection scan in plan " + stages);
+    }
+
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document doc) {
+            Object stage = doc.get("stage");
+            if (stage instanceof String name) stages.add(name);
+            for (Object value : doc.values()) collectStages(value, stages);
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) collectStages(value, stages);
+        }
+    }
+}
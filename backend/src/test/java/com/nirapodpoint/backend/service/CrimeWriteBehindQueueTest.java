@@ -0,0 +1,134 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CrimeWriteBehindQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations ops = mock(BulkOperations.class);
+
+    private static final class RecordingListener implements CrimeReportListener {
+        final List<String> added = Collections.synchronizedList(new ArrayList<>());
+        final boolean fail;
+
+        RecordingListener(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void onCrimeAdded(CrimeReport crime) {
+            added.add(crime.getId());
+            if (fail) throw new IllegalStateException("listener down");
+        }
+
+        @Override
+        public void onCrimeRemoved(CrimeReport crime) {
+        }
+    }
+
+    private CrimeWriteBehindQueue queue(List<CrimeReportListener> listeners) {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrimeReport.class)).thenReturn(ops);
+        when(ops.insert(anyList())).thenReturn(ops);
+        CrimeWriteBehindQueue queue = new CrimeWriteBehindQueue();
+        ReflectionTestUtils.setField(queue, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(queue, "listeners", listeners);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "journalPath", dir.resolve("journal.ndjson").toString());
+        ReflectionTestUtils.setField(queue, "batchSize", 100);
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(queue, "segmentBytes", 1L << 20);
+        return queue;
+    }
+
+    private static String add(String id) {
+        return "{\"id\":\"" + id + "\",\"type\":\"theft\",\"lat\":23.75,\"lng\":90.39,\"time\":\"2024-01-01T10:00\"}\n";
+    }
+
+    private static void awaitFlushed(CrimeWriteBehindQueue queue, String... ids) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        for (String id : ids) {
+            while (queue.getPending(id) != null && System.nanoTime() < deadline) Thread.sleep(5);
+            assertNull(queue.getPending(id), id + " still pending");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replayNotifiesOnlyRowsThatWereNotInsertedBeforeTheCrash() throws Exception {
+        // a was flushed before the crash, c was deleted while queued, and the last line is torn.
+        Files.writeString(dir.resolve("journal.ndjson.000001"),
+            add("a") + add("b") + add("c") + "{\"op\":\"remove\",\"id\":\"c\"}\n" + "{\"id\":\"d\",\"ty");
+        MongoBulkWriteException duplicate = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+            List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)), null, new ServerAddress(), Set.of());
+        RecordingListener listener = new RecordingListener(false);
+        CrimeWriteBehindQueue queue = queue(List.of(listener));
+        when(ops.execute()).thenThrow(new BulkOperationException("duplicate", duplicate));
+
+        queue.start();
+        awaitFlushed(queue, "a", "b");
+        queue.stop();
+
+        ArgumentCaptor<List<CrimeReport>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(ops).insert(inserted.capture());
+        assertEquals(List.of("a", "b"), inserted.getValue().stream().map(CrimeReport::getId).toList());
+        assertEquals(List.of("b"), listener.added);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("journal.ndjson.000002"), files.map(p -> p.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void failingListenerDoesNotRepeatTheInsertOrTheOtherListeners() throws Exception {
+        RecordingListener failing = new RecordingListener(true);
+        RecordingListener healthy = new RecordingListener(false);
+        CrimeWriteBehindQueue queue = queue(List.of(failing, healthy));
+        queue.start();
+
+        CrimeReport report = new CrimeReport();
+        report.setType("theft");
+        report.setLocation(new GeoJsonPoint(90.39, 23.75));
+        report.setTime(LocalDateTime.now());
+        String id = queue.submit(report).getId();
+        awaitFlushed(queue, id);
+        Thread.sleep(100);
+        queue.stop();
+
+        verify(ops, times(1)).execute();
+        assertEquals(List.of(id), failing.added);
+        assertEquals(List.of(id), healthy.added);
+        assertEquals(0, Files.size(dir.resolve("journal.ndjson.000001")));
+    }
+}
@@ -0,0 +1,110 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.DistrictCrimeStats;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DistrictStatsServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations ops = mock(BulkOperations.class);
+    private final DistrictStatsService service = new DistrictStatsService();
+    // District -> net totalCrimes increment applied through delta upserts.
+    private final Map<String, Long> applied = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    DistrictStatsServiceTest() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DistrictCrimeStats.class)).thenReturn(ops);
+        when(ops.upsert(any(Query.class), any(Update.class))).thenAnswer(inv -> {
+            String district = (String) inv.getArgument(0, Query.class).getQueryObject().get("_id");
+            Document inc = (Document) inv.getArgument(1, Update.class).getUpdateObject().get("$inc");
+            applied.merge(district, ((Number) inc.get("totalCrimes")).longValue(), Long::sum);
+            return ops;
+        });
+        when(mongoTemplate.getCollectionName(DistrictCrimeStats.class)).thenReturn("district_crime_stats");
+        MongoDatabase db = mock(MongoDatabase.class);
+        when(db.getName()).thenReturn("test");
+        when(mongoTemplate.getDb()).thenReturn(db);
+        when(mongoTemplate.getCollection(anyString())).thenReturn(mock(MongoCollection.class));
+    }
+
+    private static CrimeReport crime(String id, String district) {
+        CrimeReport crime = new CrimeReport();
+        crime.setId(id);
+        crime.setType("theft");
+        crime.setDistrict(district);
+        crime.setTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return crime;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deltasDuringRebuildAreReconciledWithWhatTheStreamCounted() {
+        CrimeReport seen = crime("a", "Dhaka");
+        CrimeReport removedAfterSeen = crime("b", "Dhaka");
+        CrimeReport late = crime("c", "Sylhet");
+        CrimeReport transient_ = crime("d", "Khulna");
+        CrimeReport removedBeforeSeen = crime("e", "Rangpur");
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.of(seen, removedAfterSeen)
+            .peek(crime -> {
+                if (crime != removedAfterSeen) return;
+                // Listener calls racing with the stream: a was inserted before the stream reached it,
+                // b is deleted after being counted, c is inserted after the stream passed its position,
+                // d comes and goes, and e was deleted before the stream reached it.
+                service.onCrimeAdded(seen);
+                service.onCrimeRemoved(removedAfterSeen);
+                service.onCrimesAdded(List.of(late, transient_));
+                service.onCrimeRemoved(transient_);
+                service.onCrimeRemoved(removedBeforeSeen);
+                assertEquals(Map.of(), applied, "deltas must wait for the swap");
+            }));
+        ArgumentCaptor<Collection<DistrictCrimeStats>> built = ArgumentCaptor.forClass(Collection.class);
+
+        assertEquals(1, service.rebuild());
+
+        verify(mongoTemplate).insert(built.capture(), eq("district_crime_stats_rebuild"));
+        assertEquals(2, new ArrayList<>(built.getValue()).get(0).getTotalCrimes());
+        verify(mongoTemplate.getCollection("district_crime_stats_rebuild"))
+            .renameCollection(eq(new MongoNamespace("test", "district_crime_stats")), any(RenameCollectionOptions.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(DistrictCrimeStats.class));
+        assertEquals(Map.of("Dhaka", -1L, "Sylhet", 1L), applied);
+    }
+
+    @Test
+    void deltasOutsideARebuildApplyImmediately() {
+        service.onCrimeAdded(crime("a", "Dhaka"));
+        service.onCrimeRemoved(crime("b", "Sylhet"));
+        assertEquals(Map.of("Dhaka", 1L, "Sylhet", -1L), applied);
+        verify(mongoTemplate, never()).insert(anyCollection(), anyString());
+    }
+}
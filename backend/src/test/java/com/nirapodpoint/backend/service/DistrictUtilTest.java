@@ -0,0 +1,63 @@
+package com.nirapodpoint.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistrictUtilTest {
+
+    // Square 0..10 with a 4..6 hole, plus an L-shaped MultiPolygon whose notch is outside.
+    private static final String GEOJSON = """
+        {"type":"FeatureCollection","features":[
+          {"type":"Feature","properties":{"ADM2_EN":"Ring"},"geometry":{"type":"Polygon","coordinates":[
+            [[0,0],[10,0],[10,10],[0,10],[0,0]],
+            [[4,4],[6,4],[6,6],[4,6],[4,4]]]}},
+          {"type":"Feature","properties":{"name":"Ell"},"geometry":{"type":"MultiPolygon","coordinates":[
+            [[[20,0],[30,0],[30,5],[25,5],[25,10],[20,10],[20,0]]],
+            [[[40,0],[41,0],[41,1],[40,1],[40,0]]]]}},
+          {"type":"Feature","properties":{},"geometry":{"type":"Polygon","coordinates":[[[0,0],[1,0],[1,1],[0,0]]]}}
+        ]}""";
+
+    private static List<DistrictUtil.Region> regions() throws Exception {
+        return DistrictUtil.parseBoundaries(new ObjectMapper().readTree(GEOJSON));
+    }
+
+    @Test
+    void pointInPolygonExcludesHoles() throws Exception {
+        DistrictUtil.Region ring = regions().get(0);
+        assertEquals("Ring", ring.name);
+        assertTrue(ring.contains(2, 2));
+        assertTrue(ring.contains(5, 3));
+        assertFalse(ring.contains(5, 5), "inside the hole");
+        assertFalse(ring.contains(11, 5));
+        assertFalse(ring.contains(-1, -1));
+    }
+
+    @Test
+    void multiPolygonMatchesEveryPartButNotTheConcaveNotch() throws Exception {
+        List<DistrictUtil.Region> regions = regions();
+        assertEquals(2, regions.size(), "features without a name are skipped");
+        DistrictUtil.Region ell = regions.get(1);
+        // GeoJSON positions are [lng, lat].
+        assertTrue(ell.contains(2, 22));
+        assertTrue(ell.contains(8, 22));
+        assertTrue(ell.contains(0.5, 40.5));
+        assertFalse(ell.contains(8, 28), "inside the bounding box but outside the L");
+        assertFalse(ell.contains(0.5, 35));
+    }
+
+    @Test
+    void boundingBoxFallbackPrefersTheDistrictThePointIsMostCentralIn() {
+        assertEquals("boxes", DistrictUtil.BOUNDARY_VERSION);
+        // Dhaka and Narayanganj boxes overlap here.
+        assertEquals("Dhaka", DistrictUtil.findDistrict(23.81, 90.41));
+        assertEquals("Sylhet", DistrictUtil.findDistrict(24.89, 91.87));
+        assertNull(DistrictUtil.findDistrict(0, 0));
+    }
+}
@@ -0,0 +1,175 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotspotServiceTest {
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private HotspotService service(double epsMeters, int minPoints) {
+        HotspotService service = new HotspotService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "windowDays", 30);
+        ReflectionTestUtils.setField(service, "epsMeters", epsMeters);
+        ReflectionTestUtils.setField(service, "minPoints", minPoints);
+        return service;
+    }
+
+    // Textbook O(n^2) DBSCAN on the same projection, returning the sizes of the clusters found.
+    private static List<Integer> bruteForceClusterSizes(List<HotspotService.CrimePoint> points, double eps, int minPoints) {
+        int n = points.size();
+        double cosLat = Math.cos(Math.toRadians(points.stream().mapToDouble(HotspotService.CrimePoint::lat).average().orElse(0)));
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).lng() * METERS_PER_DEGREE * cosLat;
+            ys[i] = points.get(i).lat() * METERS_PER_DEGREE;
+        }
+        List<List<Integer>> neighbors = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<Integer> found = new ArrayList<>();
+            for (int j = 0; j < n; j++) {
+                double dx = xs[i] - xs[j], dy = ys[i] - ys[j];
+                if (dx * dx + dy * dy <= eps * eps) found.add(j);
+            }
+            neighbors.add(found);
+        }
+        int[] labels = new int[n];
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (labels[i] != 0 || neighbors.get(i).size() < minPoints) continue;
+            int label = sizes.size() + 1;
+            int size = 0;
+            List<Integer> frontier = new ArrayList<>(List.of(i));
+            labels[i] = label;
+            while (!frontier.isEmpty()) {
+                int p = frontier.remove(frontier.size() - 1);
+                size++;
+                if (neighbors.get(p).size() < minPoints) continue;
+                for (int q : neighbors.get(p)) {
+                    if (labels[q] != 0) continue;
+                    labels[q] = label;
+                    frontier.add(q);
+                }
+            }
+            sizes.add(size);
+        }
+        sizes.sort(null);
+        return sizes;
+    }
+
+    private static HotspotService.CrimePoint point(double lat, double lng) {
+        return new HotspotService.CrimePoint(lat, lng, "theft", LocalDateTime.now().minusDays(1));
+    }
+
+    @Test
+    void separatesDenseGroupsFromNoise() {
+        List<HotspotService.CrimePoint> points = new ArrayList<>();
+        for (int i = 0; i < 8; i++) points.add(point(23.7500 + i * 0.0002, 90.3900));
+        for (int i = 0; i < 6; i++) points.add(point(23.8000, 90.4200 + i * 0.0002));
+        points.add(point(23.9000, 90.5000));
+        points.add(point(23.6000, 90.3000));
+
+        List<Map<String, Object>> hotspots = service(300, 5).cluster(points);
+
+        assertEquals(2, hotspots.size());
+        assertEquals(8, hotspots.get(0).get("count"));
+        assertEquals(6, hotspots.get(1).get("count"));
+        assertEquals(1, hotspots.get(0).get("rank"));
+        assertEquals(23.7507, (double) hotspots.get(0).get("lat"), 1e-4);
+    }
+
+    @Test
+    void matchesBruteForceDbscanOnRandomPoints() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            List<HotspotService.CrimePoint> points = new ArrayList<>();
+            int centres = 1 + random.nextInt(5);
+            for (int c = 0; c < centres; c++) {
+                double lat = 23.70 + random.nextDouble() * 0.1, lng = 90.35 + random.nextDouble() * 0.1;
+                for (int i = random.nextInt(30); i > 0; i--) {
+                    points.add(point(lat + random.nextGaussian() * 0.002, lng + random.nextGaussian() * 0.002));
+                }
+            }
+            for (int i = random.nextInt(40); i > 0; i--) {
+                points.add(point(23.70 + random.nextDouble() * 0.1, 90.35 + random.nextDouble() * 0.1));
+            }
+
+            List<Integer> sizes = new ArrayList<>(service(250, 4).cluster(points).stream()
+                .map(h -> (Integer) h.get("count"))
+                .toList());
+            sizes.sort(null);
+            assertEquals(bruteForceClusterSizes(points, 250, 4), sizes, "round " + round);
+        }
+    }
+
+    @Test
+    void keepsCrimesReportedBeforeTheInitialLoad() {
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.empty());
+        HotspotService service = service(300, 3);
+        for (int i = 0; i < 3; i++) {
+            CrimeReport crime = new CrimeReport();
+            crime.setId("c" + i);
+            crime.setType("theft");
+            crime.setLocation(new GeoJsonPoint(90.39, 23.75 + i * 0.0001));
+            crime.setTime(LocalDateTime.now());
+            service.onCrimeAdded(crime);
+        }
+
+        service.recompute();
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> hotspots = (List<Map<String, Object>>) service.getHotspots(10).get("hotspots");
+        assertEquals(1, hotspots.size());
+        assertEquals(3, hotspots.get(0).get("count"));
+        assertTrue(service.getHotspots(10).get("computedAt") != null);
+    }
+
+    @Test
+    void keepsCrimesUpdatedBeforeTheInitialLoad() {
+        when(mongoTemplate.stream(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> Stream.empty());
+        HotspotService service = service(300, 3);
+        for (int i = 0; i < 3; i++) {
+            CrimeReport crime = new CrimeReport();
+            crime.setId("c" + i);
+            crime.setType("theft");
+            crime.setLocation(new GeoJsonPoint(90.39, 23.75 + i * 0.0001));
+            crime.setTime(LocalDateTime.now());
+            service.onCrimeAdded(crime);
+        }
+        CrimeReport updated = new CrimeReport();
+        updated.setId("c0");
+        updated.setType("robbery");
+        updated.setLocation(new GeoJsonPoint(90.39, 23.7501));
+        updated.setTime(LocalDateTime.now());
+        service.onCrimeRemoved(updated);
+        service.onCrimeAdded(updated);
+
+        service.recompute();
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> hotspots = (List<Map<String, Object>>) service.getHotspots(10).get("hotspots");
+        assertEquals(1, hotspots.size());
+        assertEquals(3, hotspots.get(0).get("count"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.nirapodpoint.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        KeysetCursor position = KeysetCursor.decode(KeysetCursor.encode(time, "abc|def"));
+        assertEquals(time, position.time);
+        assertEquals("abc|def", position.id);
+    }
+
+    @Test
+    void roundTripsMissingTime() {
+        KeysetCursor position = KeysetCursor.decode(KeysetCursor.encode(null, "abc"));
+        assertNull(position.time);
+        assertEquals("abc", position.id);
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.nirapodpoint.backend.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.nirapodpoint.backend.model.MailOutboxMessage;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailBatchSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static JavaMailSenderImpl sender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    private static MailOutboxMessage message(String id, String to, String subject) {
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setId(id);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setHtml("<p>" + subject + "</p>");
+        return message;
+    }
+
+    @Test
+    void sendsBatchOverOneConnection() throws Exception {
+        MailBatchSender batchSender = new MailBatchSender(sender(smtp.getSmtp().getPort()), "noreply@nirapodpoint.test");
+
+        Map<String, Exception> failures = batchSender.send(List.of(
+            message("1", "a@example.com", "First"),
+            message("2", "b@example.com", "Second"),
+            message("3", "c@example.com", "Third")
+        ));
+
+        assertTrue(failures.isEmpty(), failures::toString);
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("First", received[0].getSubject());
+        assertEquals("b@example.com", received[1].getAllRecipients()[0].toString());
+    }
+
+    @Test
+    void reportsEveryMessageAsFailedWhenServerIsUnreachable() {
+        int unusedPort = smtp.getSmtp().getPort() + 1;
+        MailBatchSender batchSender = new MailBatchSender(sender(unusedPort), "noreply@nirapodpoint.test");
+
+        Map<String, Exception> failures = batchSender.send(List.of(
+            message("1", "a@example.com", "First"),
+            message("2", "b@example.com", "Second")
+        ));
+
+        assertEquals(2, failures.size());
+        assertTrue(failures.containsKey("1") && failures.containsKey("2"));
+    }
+
+    @Test
+    void reportsInvalidAddressWithoutFailingTheBatch() {
+        MailBatchSender batchSender = new MailBatchSender(sender(smtp.getSmtp().getPort()), "noreply@nirapodpoint.test");
+
+        Map<String, Exception> failures = batchSender.send(List.of(
+            message("1", "not an address", "Broken"),
+            message("2", "b@example.com", "Fine")
+        ));
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey("1"));
+        assertEquals(1, smtp.getReceivedMessages().length);
+    }
+
+    @Test
+    void rendersTemplatesWithEscapedValues() {
+        MailService.Template template = MailService.Template.compile("Hello <b>{{userName}}</b>, code {{otp}}.");
+        assertEquals("Hello <b>&lt;Rahim&gt;</b>, code 123456.",
+            template.render(Map.of("userName", "<Rahim>", "otp", "123456")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.MailOutboxMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailOutboxServiceTest {
+
+    @Test
+    void lastFailedAttemptDropsTheBodyAndStampsFailedAt() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MailBatchSender sender = mock(MailBatchSender.class);
+        MailOutboxService service = new MailOutboxService(1);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "mailBatchSender", sender);
+        ReflectionTestUtils.setField(service, "batchSize", 20);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setId("m1");
+        message.setHtml("<p>Your code is 123456</p>");
+        message.setAttempts(3);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MailOutboxMessage.class)))
+            .thenReturn(message, (MailOutboxMessage) null);
+        when(sender.send(anyList())).thenThrow(new IllegalStateException("smtp down"));
+
+        service.dispatch();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5000)).updateFirst(any(Query.class), update.capture(), eq(MailOutboxMessage.class));
+        service.shutdown();
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        Document unset = (Document) update.getValue().getUpdateObject().get("$unset");
+        assertEquals(MailOutboxMessage.FAILED, set.get("status"));
+        assertTrue(set.containsKey("failedAt"));
+        assertTrue(unset.containsKey("html"), "the body may hold a one-time code");
+    }
+}
@@ -0,0 +1,72 @@
+package com.nirapodpoint.backend.service;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MongoCommandMonitorTest {
+
+    @Test
+    void findShapeKeepsOperatorsAndDropsValues() {
+        BsonDocument command = BsonDocument.parse("{find: 'crime_reports', filter: {location: {$geoWithin: "
+            + "{$geometry: {type: 'Polygon', coordinates: [[[90.1, 23.7], [90.2, 23.7]]]}}}, type: 'theft'}, "
+            + "sort: {time: -1}, limit: 500}");
+        assertEquals("filter={location: {$geoWithin: {$geometry: {type: ?, coordinates: [?]}}}, type: ?} sort={time: ?}",
+            MongoCommandMonitor.shapeOf("find", command));
+    }
+
+    @Test
+    void aggregateShapeWalksThePipeline() {
+        BsonDocument command = BsonDocument.parse("{aggregate: 'crime_reports', pipeline: [{$match: {reporter: {$ne: null}}}, "
+            + "{$group: {_id: '$reporter', count: {$sum: 1}}}], cursor: {}}");
+        assertEquals("pipeline=[{$match: {reporter: {$ne: ?}}}, {$group: {_id: ?, count: {$sum: ?}}}]",
+            MongoCommandMonitor.shapeOf("aggregate", command));
+    }
+
+    @Test
+    void sameShapeForDifferentValues() {
+        BsonDocument a = BsonDocument.parse("{count: 'users', query: {isVerified: true, createdAt: {$lt: 5}}}");
+        BsonDocument b = BsonDocument.parse("{count: 'users', query: {isVerified: false, createdAt: {$lt: 9}}}");
+        assertEquals(MongoCommandMonitor.shapeOf("count", a), MongoCommandMonitor.shapeOf("count", b));
+    }
+
+    @Test
+    void slowCommandIsShapedFromTheCopyTakenWhenItStarted() {
+        MongoCommandMonitor monitor = new MongoCommandMonitor(new SimpleMeterRegistry(), 100, 10);
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        BsonDocument fast = BsonDocument.parse("{find: 'crime_reports', filter: {type: 'theft'}}");
+        BsonDocument slow = BsonDocument.parse("{find: 'crime_reports', filter: {district: 'Dhaka'}, "
+            + "lsid: {id: 1}, $db: 'nirapodpoint'}");
+
+        monitor.commandStarted(new CommandStartedEvent(null, 1, 1, connection, "nirapodpoint", "find", fast));
+        monitor.commandStarted(new CommandStartedEvent(null, 2, 2, connection, "nirapodpoint", "find", slow));
+        // The driver may reuse the command's buffer once the callback returns.
+        slow.put("filter", new BsonString("overwritten"));
+        BsonDocument response = BsonDocument.parse("{cursor: {firstBatch: [{}, {}]}, ok: 1}");
+        monitor.commandSucceeded(new CommandSucceededEvent(null, 1, 1, connection, "nirapodpoint", "find", response, 1_000_000));
+        monitor.commandSucceeded(new CommandSucceededEvent(null, 2, 2, connection, "nirapodpoint", "find", response, 250_000_000));
+
+        List<MongoCommandMonitor.SlowQuery> slowQueries = monitor.slowQueries();
+        assertEquals(1, slowQueries.size());
+        MongoCommandMonitor.SlowQuery query = slowQueries.get(0);
+        assertEquals("filter={district: ?}", query.shape);
+        assertEquals(2, query.lastDocuments);
+        assertEquals("Dhaka", query.sample.getDocument("filter").getString("district").getValue());
+        assertTrue(query.sample.containsKey("find"));
+        assertFalse(query.sample.containsKey("lsid"));
+        assertFalse(query.sample.containsKey("$db"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.nirapodpoint.backend.service;
+
+import com.nirapodpoint.backend.model.CrimeReport;
+import com.nirapodpoint.backend.model.RouteRequest;
+import com.nirapodpoint.backend.model.RouteResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RouteServiceTest {
+    private static final RouteService routeService = new RouteService();
+    private static RouteService.Graph graph;
+    private static RouteService.Node west;
+    private static RouteService.Node east;
+
+    @BeforeAll
+    static void loadTile() throws IOException {
+        try (InputStream is = new ClassPathResource("osm_graphs/kushtia_drive.json").getInputStream()) {
+            graph = RouteService.parseGraph(is);
+        }
+        List<RouteService.Node> nodes = new ArrayList<>(graph.nodes().values());
+        west = nodes.stream().min(Comparator.comparingDouble(n -> n.lng)).orElseThrow();
+        east = nodes.stream().max(Comparator.comparingDouble(n -> n.lng)).orElseThrow();
+    }
+
+    @Test
+    void distanceOnlySearchReachesTheEnd() {
+        List<RouteService.Node> path = routeService.aStar(west, east, null, System.nanoTime() + 60_000_000_000L);
+        assertTrue(path.size() > 1);
+        assertSame(west, path.get(0));
+        assertSame(east, path.get(path.size() - 1));
+    }
+
+    @Test
+    void searchGivesUpOnceTheDeadlineHasPassed() {
+        assertNull(routeService.aStar(west, east, null, System.nanoTime() - 1));
+    }
+
+    @Test
+    void searchWithoutDeadlineMatchesUnboundedCall() {
+        Map<RouteService.Edge, Double> weights = new HashMap<>();
+        graph.edges().forEach(edge -> weights.put(edge, edge.length % 7));
+        assertEquals(routeService.aStar(west, east, weights), routeService.aStar(west, east, weights, Long.MAX_VALUE));
+    }
+
+    @Test
+    void onlySafestRouteSearchesRecordNodesSettled() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RouteService service = new RouteService();
+        ReflectionTestUtils.setField(service, "metrics", new RouteMetrics(registry));
+        service.aStar(west, east, edge -> 0.0, Set.of(), Long.MAX_VALUE);
+        assertEquals(0, registry.get("route.astar.nodes.settled").summary().count());
+        service.aStar(west, east, Map.of());
+        assertEquals(1, registry.get("route.astar.nodes.settled").summary().count());
+    }
+
+    @Test
+    void concurrentColdLoadsShareOneGraph() throws Exception {
+        RouteService fresh = new RouteService();
+        List<Callable<RouteService.Graph>> loads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            loads.add(() -> fresh.loadGraphIfNeeded("Kushtia", "drive"));
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<RouteService.Graph>> results = pool.invokeAll(loads);
+            RouteService.Graph first = results.get(0).get();
+            for (Future<RouteService.Graph> result : results) {
+                assertSame(first, result.get());
+            }
+        }
+    }
+
+    @Test
+    void overlayWeighsOnlyEdgesNearTheCrimesAndLeavesTheSnapshotAlone() {
+        RouteService.Edge target = graph.edges().get(graph.edges().size() / 2);
+        double[] point = target.geometry.get(target.geometry.size() / 2);
+        CrimeReport crime = new CrimeReport();
+        crime.setType("robbery");
+        crime.setLocation(new GeoJsonPoint(point[1] + 0.0001, point[0]));
+        crime.setTime(LocalDateTime.now());
+
+        RouteService.RiskSnapshot snapshot = new RouteService.RiskSnapshot(graph, 0, System.currentTimeMillis(),
+            Map.of(), RouteService.buildEdgeGrid(graph.edges()));
+        RouteService.RiskOverlay overlay = routeService.new RiskOverlay(List.of(snapshot));
+        overlay.add(List.of(crime));
+
+        Map<RouteService.Edge, Double> expected = new HashMap<>();
+        for (RouteService.Edge edge : graph.edges()) {
+            double weight = routeService.calculateEdgeWeight(edge, List.of(crime));
+            if (weight > 0) expected.put(edge, weight);
+        }
+        assertTrue(expected.containsKey(target));
+        assertEquals(expected, overlay.delta);
+        assertTrue(snapshot.weights().isEmpty());
+    }
+
+    @Test
+    void concurrentStaleSnapshotQueriesShareOneCrimeQuery() throws Exception {
+        RouteService fresh = new RouteService();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        CrimeWriteBehindQueue queue = mock(CrimeWriteBehindQueue.class);
+        CrimeRiskVersion version = new CrimeRiskVersion();
+        AtomicInteger queries = new AtomicInteger();
+        when(mongoTemplate.find(any(Query.class), eq(CrimeReport.class))).thenAnswer(inv -> {
+            queries.incrementAndGet();
+            Thread.sleep(200);
+            return new ArrayList<CrimeReport>();
+        });
+        ReflectionTestUtils.setField(fresh, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(fresh, "writeBehindQueue", queue);
+        ReflectionTestUtils.setField(fresh, "riskVersion", version);
+
+        RouteService.RiskSnapshot first = fresh.riskSnapshot("Kushtia", "drive");
+        assertSame(first, fresh.riskSnapshot("Kushtia", "drive"));
+        assertEquals(1, queries.get());
+
+        version.onCrimeAdded(new CrimeReport());
+        List<Callable<RouteService.RiskSnapshot>> reads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            reads.add(() -> fresh.riskSnapshot("Kushtia", "drive"));
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<RouteService.RiskSnapshot>> results = pool.invokeAll(reads);
+            RouteService.RiskSnapshot rebuilt = results.get(0).get();
+            for (Future<RouteService.RiskSnapshot> result : results) {
+                assertSame(rebuilt, result.get());
+            }
+            assertEquals(1, rebuilt.version());
+            assertSame(first.grid(), rebuilt.grid());
+        }
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamReportsAtOnceAndGivesUpOnColdTilesWhenTheBudgetRunsOut() {
+        RouteService fresh = new RouteService();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(CrimeReport.class))).thenReturn(new ArrayList<>());
+        ReflectionTestUtils.setField(fresh, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(fresh, "riskVersion", new CrimeRiskVersion());
+        ReflectionTestUtils.setField(fresh, "fetchTimeoutMs", 10_000L);
+        // A tile load that never finishes, as a very slow cold load would look to this request.
+        ((Map<String, CompletableFuture<RouteService.Graph>>) ReflectionTestUtils.getField(fresh, "graphCache"))
+            .put("kushtia_drive", new CompletableFuture<>());
+        RouteService.Node a = graph.nodes().values().stream()
+            .filter(n -> "Kushtia".equals(DistrictUtil.findDistrict(n.lat, n.lng))).findFirst().orElseThrow();
+        RouteRequest request = new RouteRequest();
+        request.setStartLat(a.lat);
+        request.setStartLng(a.lng);
+        request.setEndLat(a.lat);
+        request.setEndLng(a.lng);
+        request.setNetworkType("drive");
+        List<String> events = new ArrayList<>();
+        RouteStreamListener listener = new RouteStreamListener() {
+            @Override
+            public void progress(String stage) {
+                events.add(stage);
+            }
+
+            @Override
+            public void approximate(RouteResponse route) {
+                events.add("approximate");
+            }
+
+            @Override
+            public void route(RouteResponse route, boolean complete) {
+                events.add("route");
+            }
+        };
+
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> fresh.streamSafestRoute(request, 300, listener));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of("started"), events);
+        assertTrue(elapsedMs < 3_000, "bounded by the 300 ms budget, not the fetch timeout, took " + elapsedMs);
+    }
+}
@@ -28,6 +28,8 @@ import avatar4 from "../assets/img/avatars/avatar4.png";
 import bannerImg from "../assets/img/auth/banner.png";
 import FixedPlugin from "../components/fixedPlugin/FixedPlugin";
 
+const PAGE_SIZE = 50;
+
 const statusOptions = [
   { label: "All", value: "all" },
   { label: "Verified", value: "true" },
@@ -37,6 +39,9 @@ const statusOptions = [
 export default function AdminPage() {
   const { user, jwt } = useUser();
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [totalUsers, setTotalUsers] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const [status, setStatus] = useState("all");
@@ -59,17 +64,25 @@ export default function AdminPage() {
     
   }, [status, user]);
 
-  const fetchUsers = async () => {
-    setLoading(true);
+  const fetchUsers = async (cursor = null) => {
+    if (!cursor) setLoading(true);
+    else setLoadingMore(true);
     setError("");
     try {
-      const res = await fetch(`/api/users?verified=${status}`, {
-        headers: { Authorization: `Bearer ${jwt}` },
-      });
+      const cursorParam = cursor ? `&cursor=${encodeURIComponent(cursor)}` : "";
+      const res = await fetch(
+        `/api/users?verified=${status}&size=${PAGE_SIZE}${cursorParam}`,
+        {
+          headers: { Authorization: `Bearer ${jwt}` },
+        }
+      );
       if (!res.ok) throw new Error(await res.text());
       const usersData = await res.json();
-      setUsers(usersData);
-      
+      setTotalUsers(Number(res.headers.get("X-Total-Count")) || usersData.length);
+      setNextCursor(res.headers.get("X-Next-Cursor"));
+      setUsers((prev) => (cursor ? [...prev, ...usersData] : usersData));
+      if (cursor) return;
+
       const countsRes = await fetch(`/api/users/crime-counts`, {
         headers: { Authorization: `Bearer ${jwt}` },
       });
@@ -87,6 +100,7 @@ export default function AdminPage() {
       setError(err.message || "Failed to fetch users");
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -361,7 +375,7 @@ export default function AdminPage() {
                       <Flex w="100%" mt={4} gap={4} justify="center">
                         {u.nidFront && (
                           <Image
-                            src={`data:image/jpeg;base64,${u.nidFront}`}
+                            src={u.nidFront}
                             alt="NID Front"
                             width="48%"
                             height="140px"
@@ -374,7 +388,7 @@ export default function AdminPage() {
                             cursor="pointer"
                             onClick={() => {
                               setModalImg({
-                                src: `data:image/jpeg;base64,${u.nidFront}`,
+                                src: u.nidFront,
                                 alt: `NID Front of ${u.name}`,
                               });
                               onOpen();
@@ -384,7 +398,7 @@ export default function AdminPage() {
                         )}
                         {u.nidBack && (
                           <Image
-                            src={`data:image/jpeg;base64,${u.nidBack}`}
+                            src={u.nidBack}
                             alt="NID Back"
                             width="48%"
                             height="140px"
@@ -397,7 +411,7 @@ export default function AdminPage() {
                             cursor="pointer"
                             onClick={() => {
                               setModalImg({
-                                src: `data:image/jpeg;base64,${u.nidBack}`,
+                                src: u.nidBack,
                                 alt: `NID Back of ${u.name}`,
                               });
                               onOpen();
@@ -482,6 +496,17 @@ export default function AdminPage() {
             ))}
           </SimpleGrid>
         )}
+        {!loading && nextCursor && users.length < totalUsers && (
+          <Flex justify="center" mt={8}>
+            <Button
+              colorScheme="purple"
+              isLoading={loadingMore}
+              onClick={() => fetchUsers(nextCursor)}
+            >
+              Load more ({users.length} of {totalUsers})
+            </Button>
+          </Flex>
+        )}
       </motion.div>
       {/* Photo Modal */}
       {modalImg && (
@@ -77,6 +77,28 @@ const getCrimeIcon = (type) => {
   });
 };
 
+// Below the backend's max cluster zoom /api/crimes/bounds answers with clusters instead of crimes.
+const getClusterIcon = (cluster) => {
+  const color = crimeTypeColors[cluster.dominantType] || "gray";
+  const size = Math.min(56, 26 + Math.round(Math.log10(cluster.count) * 12));
+  return L.divIcon({
+    className: "",
+    html: `<div style="width:${size}px;height:${size}px;border-radius:50%;background:${color};opacity:0.85;border:2px solid #fff;color:#fff;font-weight:600;font-size:12px;display:flex;align-items:center;justify-content:center">${cluster.count}</div>`,
+    iconSize: [size, size],
+    iconAnchor: [size / 2, size / 2],
+  });
+};
+
+// MapContainer takes no event props in react-leaflet v4, so map moves are watched from inside it.
+function MoveEndWatcher({ onMoveEnd }) {
+  useMapEvents({
+    moveend(e) {
+      onMoveEnd(e.target);
+    },
+  });
+  return null;
+}
+
 function LocationMarker({ onSelect }) {
   useMapEvents({
     click(e) {
@@ -241,8 +263,33 @@ function MapSearchBar({ placeholder, onSelect }) {
   );
 }
 
+// Minimal Server-Sent Events reader for a fetch body (EventSource can't POST or send headers).
+async function readEvents(body, onEvent) {
+  const reader = body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = "";
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+    let boundary;
+    while ((boundary = buffer.indexOf("\n\n")) !== -1) {
+      const block = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+      let event = "message";
+      let data = "";
+      for (const line of block.split("\n")) {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data += line.slice(5);
+      }
+      if (data) onEvent(event, JSON.parse(data));
+    }
+  }
+}
+
 const MapPage = () => {
   const [crimes, setCrimes] = useState([]);
+  const [clusters, setClusters] = useState([]);
   const [filter, setFilter] = useState("all");
   const [loading, setLoading] = useState(false);
   const [bounds, setBounds] = useState(null);
@@ -277,21 +324,22 @@ const MapPage = () => {
   const legendHeadingColor = useColorModeValue("brand.500", "white");
 
   // Function to fetch crimes within current map bounds
-  const fetchCrimesInBounds = async (bounds, type = filter) => {
+  const fetchCrimesInBounds = async (bounds, type = filter, zoom = mapRef.current?.getZoom()) => {
     if (!bounds) return;
 
     setLoading(true);
     try {
       const res = await fetch(
-        `/api/crimes/bounds?minLat=${bounds._southWest.lat}&maxLat=${bounds._northEast.lat}&minLng=${bounds._southWest.lng}&maxLng=${bounds._northEast.lng}&type=${type}`,
+        `/api/crimes/bounds?minLat=${bounds._southWest.lat}&maxLat=${bounds._northEast.lat}&minLng=${bounds._southWest.lng}&maxLng=${bounds._northEast.lng}&type=${type}${zoom != null ? `&zoom=${zoom}` : ""}`,
         {
           headers: { Authorization: jwt ? `Bearer ${jwt}` : undefined },
         }
       );
       if (!res.ok) throw new Error("Failed to fetch crimes");
       const data = await res.json();
+      setClusters(data.clusters || []);
       setCrimes(
-        data.crimes.map((c) => ({
+        (data.crimes || []).map((c) => ({
           ...c,
           lat: c.location?.coordinates?.[1],
           lng: c.location?.coordinates?.[0],
@@ -300,18 +348,18 @@ const MapPage = () => {
     } catch (err) {
       console.error("Error fetching crimes:", err);
       setCrimes([]);
+      setClusters([]);
     } finally {
       setLoading(false);
     }
   };
 
   // Update crimes when map bounds change
-  const handleBoundsChange = () => {
-    if (!mapRef.current) return;
-    const map = mapRef.current;
+  const handleBoundsChange = (map = mapRef.current) => {
+    if (!map) return;
     const newBounds = map.getBounds();
     setBounds(newBounds);
-    fetchCrimesInBounds(newBounds);
+    fetchCrimesInBounds(newBounds, filter, map.getZoom());
   };
 
   // Handle filter change
@@ -388,10 +436,11 @@ const MapPage = () => {
         setRoute([]);
 
         try {
-          const res = await fetch("/api/routes/safest", {
+          const res = await fetch("/api/routes/safest/stream", {
             method: "POST",
             headers: {
               "Content-Type": "application/json",
+              Accept: "text/event-stream",
               Authorization: jwt ? `Bearer ${jwt}` : undefined,
             },
             body: JSON.stringify({
@@ -403,11 +452,22 @@ const MapPage = () => {
             }),
           });
 
-          if (!res.ok) throw new Error("Failed to fetch route");
-          const data = await res.json();
+          if (!res.ok || !res.body) throw new Error("Failed to fetch route");
 
-          if (data.route && data.route.length > 1) {
-            setRoute(data.route.map((pt) => ({ lat: pt.lat, lng: pt.lng })));
+          // The server sends an approximate route first, then the final one.
+          let finalRoute = null;
+          await readEvents(res.body, (event, data) => {
+            if (event === "approximate" && data.route && data.route.length > 1) {
+              setRoute(data.route.map((pt) => ({ lat: pt.lat, lng: pt.lng })));
+            } else if (event === "route") {
+              finalRoute = data.route || [];
+            } else if (event === "error") {
+              throw new Error(data.message || "Failed to calculate route");
+            }
+          });
+
+          if (finalRoute && finalRoute.length > 1) {
+            setRoute(finalRoute.map((pt) => ({ lat: pt.lat, lng: pt.lng })));
             setRouteError("");
           } else {
             setRoute([]);
@@ -653,10 +713,10 @@ const MapPage = () => {
                 className="z-0"
                 whenReady={(map) => {
                   setBounds(map.target.getBounds());
-                  fetchCrimesInBounds(map.target.getBounds());
+                  fetchCrimesInBounds(map.target.getBounds(), filter, map.target.getZoom());
                 }}
-                onMoveEnd={handleBoundsChange}
               >
+                <MoveEndWatcher onMoveEnd={handleBoundsChange} />
                 <TileLayer
                   attribution='&copy; <a href="https://www.openstreetmap.org/copyright">OpenStreetMap</a> contributors'
                   url="https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png"
@@ -691,6 +751,16 @@ const MapPage = () => {
                     </motion.div>
                   ))}
                 </AnimatePresence>
+                {clusters.map((cluster) => (
+                  <Marker
+                    key={`${cluster.lat},${cluster.lng}`}
+                    position={[cluster.lat, cluster.lng]}
+                    icon={getClusterIcon(cluster)}
+                    eventHandlers={{
+                      click: () => mapRef.current?.setView([cluster.lat, cluster.lng], mapRef.current.getZoom() + 2),
+                    }}
+                  />
+                ))}
                 {/* ...rest of the map overlays... */}
                 {route.length > 1 && (
                   <Polyline